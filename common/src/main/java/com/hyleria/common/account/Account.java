@@ -4,16 +4,26 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.gson.annotations.SerializedName;
 import com.hyleria.common.mongo.Database;
+import com.hyleria.common.mongo.codec.ExtraCodecs;
 import com.hyleria.common.mongo.document.DocumentBuilder;
 import com.hyleria.common.mongo.document.DocumentCompatible;
 import com.hyleria.common.reference.Role;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.conversions.Bson;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 
-import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.pushEach;
 import static com.mongodb.client.model.Updates.set;
 
 
@@ -21,29 +31,45 @@ import static com.mongodb.client.model.Updates.set;
  * @author Ben (OutdatedVersion)
  * @since Dec/08/2016 (8:15 PM)
  */
-@SuppressWarnings ( "unchecked" )
 public class Account implements DocumentCompatible
 {
 
-    private Document raw;
-    private Map<String, Object> customData = Maps.newHashMap();
+    /** for {@link #populateFromDocument(Document)} */
+    private static final AccountCodec CODEC = new AccountCodec();
 
-    private UUID uuid;
+    // the fields below are package-private for our AccountCodec
 
-    private String name;
+    /** custom data we loaded; still encoded, only decoded a value at a time */
+    transient RawBsonDocument storedData;
+
+    /** custom data set since we loaded */
+    final Map<String, Object> customData = Maps.newHashMap();
+
+    /** what has changed since we last saved; guarded by itself */
+    private final transient Changes changes = new Changes();
+
+    /** told each time this account is changed, so it's saved w/ the next flush */
+    private transient volatile Consumer<Account> tracker;
+
+    UUID uuid;
+
+    String name;
 
     @SerializedName ( "previous_names" )
-    private List<String> previousUsernames = Lists.newArrayList();
+    List<String> previousUsernames = Lists.newArrayList();
 
-    private Role role = Role.PLAYER;
+    Role role = Role.PLAYER;
 
     // TODO(Ben): currency & XP?
 
     @SerializedName ( "current_address" )
-    private String currentIP;
+    String currentIP;
 
     @SerializedName ( "previous_addresses" )
-    private List<PreviousAddress> previousAddresses = Lists.newArrayList();
+    List<PreviousAddress> previousAddresses = Lists.newArrayList();
+
+    /** bumped every time this account is changed; keeps every server's copy in order */
+    long version;
 
     /**
      * @return {@link #uuid}
@@ -62,6 +88,14 @@ public class Account implements DocumentCompatible
         return name;
     }
 
+    /**
+     * @return {@link #currentIP}
+     */
+    public String currentAddress()
+    {
+        return currentIP;
+    }
+
     /**
      * @return {@link #role}
      */
@@ -71,7 +105,36 @@ public class Account implements DocumentCompatible
     }
 
     /**
-     * Grab a value from the raw document
+     * @return {@link #version}
+     */
+    public long version()
+    {
+        return version;
+    }
+
+    /**
+     * Bring this account up to the provided
+     * version; only ever moves forward.
+     *
+     * @param version the version it's now at
+     * @param role the role it now has; {@code null} if it didn't change
+     * @return whether anything was applied
+     */
+    public synchronized boolean advance(long version, Role role)
+    {
+        if (version <= this.version)
+            return false;
+
+        this.version = version;
+
+        if (role != null)
+            this.role = role;
+
+        return true;
+    }
+
+    /**
+     * Grab a custom value from this account
      *
      * @param key where it was stored
      * @param type the type of said thing
@@ -80,7 +143,10 @@ public class Account implements DocumentCompatible
      */
     public <T> T val(String key, Class<T> type)
     {
-        return raw.get(key, type);
+        if (customData.containsKey(key))
+            return type.cast(customData.get(key));
+
+        return storedData == null ? null : AccountCodec.decodeValue(storedData, key, type);
     }
 
     /**
@@ -93,6 +159,8 @@ public class Account implements DocumentCompatible
     public Account addVal(String key, Object val)
     {
         customData.put(key, val);
+        markDirty(key, val);
+
         return this;
     }
 
@@ -105,11 +173,12 @@ public class Account implements DocumentCompatible
      */
     public boolean isPresent(String key)
     {
-        return raw.containsKey(key);
+        return customData.containsKey(key) || (storedData != null && storedData.containsKey(key));
     }
 
     /**
-     * Update this player's role in the database
+     * Update this player's role in the database;
+     * every other server is told once it's saved.
      *
      * @param newRole the new role
      * @param database database instance
@@ -119,11 +188,188 @@ public class Account implements DocumentCompatible
     {
         this.role = newRole;
 
-        database.submitTask(() -> database.accounts.updateOne(eq("uuid", this.uuid.toString()), set("role", newRole.name())));
+        // saved (& announced) right here; not w/ the next flush
+        stage("role", newRole.name());
+        database.commitChanges(this);
 
         return this;
     }
 
+    /**
+     * Note that a field should be set to the
+     * provided value next time we're saved
+     *
+     * @param field the field, as it's stored in Mongo
+     * @param value its new value
+     * @return this account
+     */
+    public Account markDirty(String field, Object value)
+    {
+        stage(field, value);
+        changed();
+
+        return this;
+    }
+
+    /**
+     * Note that a value should be appended to
+     * an array field next time we're saved
+     *
+     * @param field the field, as it's stored in Mongo
+     * @param value what to add to it
+     * @return this account
+     */
+    public Account markPush(String field, Object value)
+    {
+        synchronized (changes)
+        {
+            changes.push.computeIfAbsent(field, key -> Lists.newArrayList()).add(value);
+        }
+
+        changed();
+
+        return this;
+    }
+
+    /**
+     * Let the provided tracker know each time
+     * this account is changed from now on
+     *
+     * @param tracker the tracker; i.e. what'll save us
+     * @return this account
+     */
+    public Account trackChanges(Consumer<Account> tracker)
+    {
+        this.tracker = tracker;
+        return this;
+    }
+
+    /**
+     * @param field the field, as it's stored in Mongo
+     * @param value its new value
+     */
+    private void stage(String field, Object value)
+    {
+        synchronized (changes)
+        {
+            changes.set.put(field, value);
+        }
+    }
+
+    /**
+     * Let our tracker know we have
+     * something to be saved
+     */
+    private void changed()
+    {
+        final Consumer<Account> _tracker = tracker;
+
+        if (_tracker != null)
+            _tracker.accept(this);
+    }
+
+    /**
+     * @return whether we have changes that haven't been saved
+     */
+    public boolean isDirty()
+    {
+        synchronized (changes)
+        {
+            return !changes.isEmpty();
+        }
+    }
+
+    /**
+     * Take every unsaved change, leaving
+     * this account clean
+     *
+     * @return the changes; {@code null} if there aren't any
+     */
+    public Changes drainChanges()
+    {
+        synchronized (changes)
+        {
+            if (changes.isEmpty())
+                return null;
+
+            final Changes _drained = new Changes();
+
+            _drained.set.putAll(changes.set);
+            _drained.push.putAll(changes.push);
+
+            changes.set.clear();
+            changes.push.clear();
+
+            return _drained;
+        }
+    }
+
+    /**
+     * Put back changes that failed to save.
+     * Anything changed since takes priority.
+     *
+     * @param failed the changes
+     */
+    public void restoreChanges(Changes failed)
+    {
+        synchronized (changes)
+        {
+            failed.set.forEach(changes.set::putIfAbsent);
+
+            // these happened first; they go first
+            failed.push.forEach((field, values) ->
+            {
+                final List<Object> _merged = Lists.newArrayList(values);
+                _merged.addAll(changes.push.getOrDefault(field, Collections.emptyList()));
+
+                changes.push.put(field, _merged);
+            });
+        }
+    }
+
+    /**
+     * Changes made to an account that
+     * haven't been saved yet
+     */
+    public static class Changes
+    {
+        /** field -> its new value */
+        final Map<String, Object> set = Maps.newLinkedHashMap();
+
+        /** array field -> values to append to it */
+        final Map<String, List<Object>> push = Maps.newLinkedHashMap();
+
+        /**
+         * @param field the field, as it's stored in Mongo
+         * @return the value it's being set to, or {@code null}
+         */
+        public Object get(String field)
+        {
+            return set.get(field);
+        }
+
+        /**
+         * @return whether there's nothing here
+         */
+        boolean isEmpty()
+        {
+            return set.isEmpty() && push.isEmpty();
+        }
+
+        /**
+         * @return these changes as a single Mongo update
+         */
+        public Bson asUpdate()
+        {
+            final List<Bson> _updates = Lists.newArrayListWithCapacity(set.size() + push.size());
+
+            set.forEach((field, value) -> _updates.add(set(field, value)));
+            push.forEach((field, values) -> _updates.add(pushEach(field, values)));
+
+            return combine(_updates);
+        }
+    }
+
     /**
      * Represents some other IP that
      * someone logged in from.
@@ -148,26 +394,36 @@ public class Account implements DocumentCompatible
     {
         return DocumentBuilder.create()
                 .withFreshDoc()
-                .skipOver("uuid", "customData", "raw")  // we want to handle the uuid on our own
+                .skipOver("uuid", "customData", "storedData", "changes", "tracker")  // we want to handle the uuid on our own
                 .appendAllFields(this)
                 .append("uuid", this.uuid.toString())
                 .append("name_lower", this.name.toLowerCase())
-                .append(doc -> doc.putAll(customData))
+                .append(doc ->
+                {
+                    if (storedData != null)
+                        doc.putAll(storedData.decode(new DocumentCodec()));
+
+                    doc.putAll(customData);
+                })
                 .finished();
     }
 
+    /**
+     * Accounts we load are decoded by our
+     * {@link AccountCodec}; this is here for
+     * any document we already have in hand.
+     *
+     * @param document the document we're reading from
+     * @param <T> {@link Account}
+     * @return this account
+     */
     @Override
-    public Account populateFromDocument(Document document)
+    @SuppressWarnings ( "unchecked" )
+    public <T> T populateFromDocument(Document document)
     {
-        this.uuid = UUID.fromString(document.getString("uuid"));
-        this.name = document.getString("name");
-        this.role = Role.valueOf(document.getString("role"));
-        this.previousUsernames = document.get("previous_names", List.class);
-        this.currentIP = document.getString("current_address");
-        this.previousAddresses = document.get("previous_addresses", List.class);
-        this.raw = document;
+        final BsonDocument _bson = document.toBsonDocument(BsonDocument.class, ExtraCodecs.HYLERIA_REGISTRY);
 
-        return this;
+        return (T) CODEC.decodeInto(this, new BsonDocumentReader(_bson), DecoderContext.builder().build());
     }
 
     /**
@@ -0,0 +1,245 @@
+package com.hyleria.common.account;
+
+import com.google.common.collect.Lists;
+import com.hyleria.common.mongo.codec.ExtraCodecs;
+import com.hyleria.common.reference.Role;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.BsonValueCodec;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link Account} <-> BSON
+ *
+ * <p>
+ * Reads the fields we know about straight into
+ * the account. Everything else is custom data,
+ * which is kept as a {@link RawBsonDocument};
+ * i.e. the bytes, only decoded when asked for.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/28/2017 (11:20 AM)
+ */
+public class AccountCodec implements Codec<Account>
+{
+
+    /** custom data values */
+    private static final BsonValueCodec VALUE_CODEC = new BsonValueCodec();
+
+    /** custom data as a whole */
+    private static final BsonDocumentCodec DOCUMENT_CODEC = new BsonDocumentCodec();
+
+    /** for custom data set since we loaded */
+    private static final DocumentCodec CUSTOM_CODEC = new DocumentCodec();
+
+    /** the entries in {@code previous_addresses} */
+    private final Codec<Account.PreviousAddress> addressCodec = new ExtraCodecs.PreviousAddressCodec();
+
+    @Override
+    public Account decode(BsonReader reader, DecoderContext context)
+    {
+        return decodeInto(new Account(), reader, context);
+    }
+
+    /**
+     * Read an account document into an
+     * account we already have
+     *
+     * @param account the account
+     * @param reader where we're reading from
+     * @param context the context
+     * @return that same account
+     */
+    public Account decodeInto(Account account, BsonReader reader, DecoderContext context)
+    {
+        final BsonDocument _custom = new BsonDocument();
+
+        reader.readStartDocument();
+
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+        {
+            final String _name = reader.readName();
+
+            if (reader.getCurrentBsonType() == BsonType.NULL)
+            {
+                reader.readNull();
+                continue;
+            }
+
+            switch (_name)
+            {
+                case "_id":
+                case "name_lower":
+                    reader.skipValue();
+                    break;
+
+                case "uuid":
+                    account.uuid = ExtraCodecs.UUID_CODEC.decode(reader, context);
+                    break;
+
+                case "name":
+                    account.name = reader.readString();
+                    break;
+
+                case "role":
+                    account.role = Role.valueOf(reader.readString());
+                    break;
+
+                case "current_address":
+                    account.currentIP = reader.readString();
+                    break;
+
+                case "version":
+                    account.version = reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : reader.readInt64();
+                    break;
+
+                case "previous_names":
+                    account.previousUsernames = Lists.newArrayList();
+
+                    reader.readStartArray();
+
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+                        account.previousUsernames.add(reader.readString());
+
+                    reader.readEndArray();
+                    break;
+
+                case "previous_addresses":
+                    account.previousAddresses = Lists.newArrayList();
+
+                    reader.readStartArray();
+
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT)
+                        account.previousAddresses.add(addressCodec.decode(reader, context));
+
+                    reader.readEndArray();
+                    break;
+
+                default:
+                    _custom.put(_name, VALUE_CODEC.decode(reader, context));
+            }
+        }
+
+        reader.readEndDocument();
+
+        account.storedData = _custom.isEmpty() ? null : new RawBsonDocument(_custom, DOCUMENT_CODEC);
+        account.customData.clear();
+
+        return account;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Account account, EncoderContext context)
+    {
+        writer.writeStartDocument();
+
+        writer.writeString("uuid", account.uuid.toString());
+        writer.writeString("name", account.name);
+        writer.writeString("name_lower", account.name.toLowerCase(Locale.ROOT));
+        writer.writeString("role", account.role.name());
+        writer.writeInt64("version", account.version);
+
+        if (account.currentIP != null)
+            writer.writeString("current_address", account.currentIP);
+
+        writer.writeStartArray("previous_names");
+        account.previousUsernames.forEach(writer::writeString);
+        writer.writeEndArray();
+
+        writer.writeStartArray("previous_addresses");
+        account.previousAddresses.forEach(address -> addressCodec.encode(writer, address, context));
+        writer.writeEndArray();
+
+        // what we loaded, unless it has since been replaced
+        if (account.storedData != null)
+        {
+            for (Map.Entry<String, BsonValue> entry : account.storedData.entrySet())
+            {
+                if (account.customData.containsKey(entry.getKey()))
+                    continue;
+
+                writer.writeName(entry.getKey());
+                VALUE_CODEC.encode(writer, entry.getValue(), context);
+            }
+        }
+
+        if (!account.customData.isEmpty())
+        {
+            final BsonDocument _set = new Document(account.customData).toBsonDocument(BsonDocument.class, ExtraCodecs.HYLERIA_REGISTRY);
+
+            for (Map.Entry<String, BsonValue> entry : _set.entrySet())
+            {
+                writer.writeName(entry.getKey());
+                VALUE_CODEC.encode(writer, entry.getValue(), context);
+            }
+        }
+
+        writer.writeEndDocument();
+    }
+
+    /**
+     * Decode a single custom value, leaving
+     * the rest of them as they are
+     *
+     * @param data the custom data
+     * @param key where the value is
+     * @param type the type of value we're looking for
+     * @param <T> that type
+     * @return the value, or {@code null} if it isn't there
+     */
+    static <T> T decodeValue(RawBsonDocument data, String key, Class<T> type)
+    {
+        final BsonValue _value = data.get(key);
+
+        if (_value == null)
+            return null;
+
+        final Document _single = CUSTOM_CODEC.decode(new BsonDocumentReader(new BsonDocument(key, _value)), DecoderContext.builder().build());
+
+        return _single.get(key, type);
+    }
+
+    /**
+     * @param account an account
+     * @return that account as BSON
+     */
+    public byte[] toBytes(Account account)
+    {
+        final ByteBuf _buffer = new RawBsonDocument(account, this).getByteBuffer();
+        final byte[] _data = new byte[_buffer.remaining()];
+
+        _buffer.get(_data);
+
+        return _data;
+    }
+
+    /**
+     * @param data an account as BSON
+     * @return the account
+     */
+    public Account fromBytes(byte[] data)
+    {
+        return new RawBsonDocument(data).decode(this);
+    }
+
+    @Override
+    public Class<Account> getEncoderClass()
+    {
+        return Account.class;
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.hyleria.common.account;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The fields of an {@link Account} that an
+ * {@link AccountView} may be made up of.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/30/2017 (11:05 AM)
+ */
+public enum AccountField
+{
+
+    NAME("name"),
+    ROLE("role"),
+    VERSION("version"),
+    CURRENT_ADDRESS("current_address"),
+    PREVIOUS_NAMES("previous_names"),
+    PREVIOUS_ADDRESSES("previous_addresses");
+
+    /** where it is stored in Mongo */
+    public final String key;
+
+    /**
+     * @param key see {@link #key}
+     */
+    AccountField(String key)
+    {
+        this.key = key;
+    }
+
+    /**
+     * @param fields some fields
+     * @return where each of them are stored in Mongo;
+     *         along w/ the UUID, which we always need
+     */
+    public static List<String> keys(Collection<AccountField> fields)
+    {
+        final List<String> _keys = fields.stream().map(field -> field.key).collect(Collectors.toList());
+        _keys.add("uuid");
+
+        return _keys;
+    }
+
+}
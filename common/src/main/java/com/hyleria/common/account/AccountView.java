@@ -0,0 +1,186 @@
+package com.hyleria.common.account;
+
+import com.hyleria.common.mongo.Database;
+import com.hyleria.common.reference.Role;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Part of an account; only the fields asked
+ * for. For the many things that only need a
+ * player's name or role there's no reason to
+ * load their (ever growing) history, or any
+ * of their custom data.
+ *
+ * <p>
+ * Reading a field that wasn't loaded is an
+ * error, not a {@code null}. Use {@link #full(Database)}
+ * when the whole account turns out to be needed.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/30/2017 (11:20 AM)
+ */
+public final class AccountView
+{
+
+    /** holds whatever was loaded */
+    private final Account account;
+
+    /** what was loaded */
+    private final Set<AccountField> fields;
+
+    /** whether {@link #account} is the real thing */
+    private final boolean full;
+
+    /**
+     * @param account holds whatever was loaded
+     * @param fields what was loaded
+     * @param full whether that account is complete
+     */
+    private AccountView(Account account, Set<AccountField> fields, boolean full)
+    {
+        this.account = account;
+        this.fields = Collections.unmodifiableSet(fields);
+        this.full = full;
+    }
+
+    /**
+     * @param account a complete account
+     * @return a view covering all of it
+     */
+    public static AccountView of(Account account)
+    {
+        return new AccountView(account, EnumSet.allOf(AccountField.class), true);
+    }
+
+    /**
+     * @param partial an account w/ only some fields loaded
+     * @param fields which ones
+     * @return a view covering just those
+     */
+    public static AccountView partial(Account partial, Collection<AccountField> fields)
+    {
+        return new AccountView(partial, fields.isEmpty() ? EnumSet.noneOf(AccountField.class) : EnumSet.copyOf(fields), false);
+    }
+
+    /**
+     * @return the fields this view has
+     */
+    public Set<AccountField> fields()
+    {
+        return fields;
+    }
+
+    /**
+     * @param wanted some fields
+     * @return whether this view has all of them
+     */
+    public boolean covers(Collection<AccountField> wanted)
+    {
+        return fields.containsAll(wanted);
+    }
+
+    /**
+     * @return whether this view is of a complete account
+     */
+    public boolean isFull()
+    {
+        return full;
+    }
+
+    /**
+     * @return the account's UUID; always loaded
+     */
+    public UUID uuid()
+    {
+        return account.uuid();
+    }
+
+    /**
+     * @return the account's username
+     */
+    public String username()
+    {
+        return require(AccountField.NAME).username();
+    }
+
+    /**
+     * @return the account's role
+     */
+    public Role role()
+    {
+        return require(AccountField.ROLE).role();
+    }
+
+    /**
+     * @return the account's version
+     */
+    public long version()
+    {
+        return require(AccountField.VERSION).version();
+    }
+
+    /**
+     * @return the address the account last logged in from
+     */
+    public String currentAddress()
+    {
+        return require(AccountField.CURRENT_ADDRESS).currentAddress();
+    }
+
+    /**
+     * @return every name the account has gone by
+     */
+    public List<String> previousUsernames()
+    {
+        return Collections.unmodifiableList(require(AccountField.PREVIOUS_NAMES).previousUsernames);
+    }
+
+    /**
+     * @return the addresses the account has logged in from
+     */
+    public List<Account.PreviousAddress> previousAddresses()
+    {
+        return Collections.unmodifiableList(require(AccountField.PREVIOUS_ADDRESSES).previousAddresses);
+    }
+
+    /**
+     * Upgrade this view to the whole account;
+     * only loading it if we have to.
+     *
+     * @param database where it's loaded from
+     * @return the complete account
+     */
+    public CompletableFuture<Optional<Account>> full(Database database)
+    {
+        return full ? CompletableFuture.completedFuture(Optional.of(account))
+                    : database.fetchAccount(account.uuid(), null);
+    }
+
+    /**
+     * @param field a field we need
+     * @return the account holding it
+     */
+    private Account require(AccountField field)
+    {
+        checkState(fields.contains(field), "%s wasn't loaded for [%s]", field, account.uuid());
+
+        return account;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AccountView [uuid=" + account.uuid() + ", fields=" + (full ? "all" : fields) + "]";
+    }
+
+}
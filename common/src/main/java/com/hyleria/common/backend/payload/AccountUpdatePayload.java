@@ -0,0 +1,69 @@
+package com.hyleria.common.backend.payload;
+
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.api.Focus;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.api.Priority;
+import com.hyleria.common.reference.Role;
+
+import java.util.UUID;
+
+/**
+ * Lets every server know an account was
+ * changed, so they don't keep serving the
+ * copy they have cached.
+ *
+ * <p>
+ * Carries the version the account is now at;
+ * along w/ the new role when that's what was
+ * changed. A server holding the version right
+ * before this one applies the role in place.
+ * Anyone further behind, or when there's no
+ * role, reloads the account instead.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/28/2017 (3:40 PM)
+ */
+@Focus ( value = "gen-account-update", priority = Priority.HIGH )
+public class AccountUpdatePayload implements Payload
+{
+
+    /** whose account */
+    public UUID uuid;
+
+    /** the version of the account after this change */
+    public long version;
+
+    /** the role they now have; {@code null} when it wasn't changed */
+    public Role role;
+
+    /** for our generated codec */
+    AccountUpdatePayload()
+    {
+    }
+
+    /**
+     * @param uuid whose account
+     * @param version see {@link #version}
+     * @param role see {@link #role}
+     */
+    public AccountUpdatePayload(UUID uuid, long version, Role role)
+    {
+        this.uuid = uuid;
+        this.version = version;
+        this.role = role;
+    }
+
+    @Override
+    public String idempotencyKey()
+    {
+        return "account-" + uuid + "-" + version;
+    }
+
+    @Override
+    public RedisChannel channel()
+    {
+        return RedisChannel.DEFAULT;
+    }
+
+}
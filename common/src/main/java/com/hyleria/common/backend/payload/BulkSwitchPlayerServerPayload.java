@@ -0,0 +1,114 @@
+package com.hyleria.common.backend.payload;
+
+import com.google.gson.annotations.SerializedName;
+import com.hyleria.common.mongo.codec.ExtraCodecs;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.api.Durable;
+import com.hyleria.common.redis.api.Focus;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.api.Priority;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Moves a whole group of players to one
+ * server with a single message. The proxy
+ * paces the actual connections for us.
+ *
+ * <p>
+ * Either a list of players, or a server to
+ * pull everyone from, will be present. Never both.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/16/2017 (4:31 PM)
+ */
+@Durable ( maxAgeMillis = 30_000 )
+@Focus ( value = "network-server-switch-bulk", priority = Priority.HIGH )
+public class BulkSwitchPlayerServerPayload implements Payload
+{
+
+    /** the UUIDs of who we're moving; stored w/o dashes to save some space */
+    public List<String> players;
+
+    /** when present, everyone on this server is moved */
+    @SerializedName ( "from_server" )
+    public String fromServer;
+
+    /** the server we'd like the players to go to */
+    @SerializedName ( "server" )
+    public String requestedServer;
+
+    /** sent w/ every copy of this payload so nobody moves the same player twice; made when first needed */
+    private transient String idempotencyKey;
+
+    /** for our generated codec */
+    BulkSwitchPlayerServerPayload()
+    {
+    }
+
+    /**
+     * @param players the players
+     * @param fromServer the server to pull everyone from
+     * @param server where they're going
+     */
+    private BulkSwitchPlayerServerPayload(List<String> players, String fromServer, String server)
+    {
+        this.players = players;
+        this.fromServer = fromServer;
+        this.requestedServer = checkNotNull(server);
+    }
+
+    /**
+     * @param uuids the players we're moving
+     * @param server the server they're going to
+     * @return the payload
+     */
+    public static BulkSwitchPlayerServerPayload of(Collection<UUID> uuids, String server)
+    {
+        return new BulkSwitchPlayerServerPayload(uuids.stream().map(uuid -> uuid.toString().replace("-", "")).collect(Collectors.toList()), null, server);
+    }
+
+    /**
+     * @param fromServer the server everyone is leaving
+     * @param server the server they're going to
+     * @return the payload
+     */
+    public static BulkSwitchPlayerServerPayload everyoneOn(String fromServer, String server)
+    {
+        return new BulkSwitchPlayerServerPayload(null, checkNotNull(fromServer), server);
+    }
+
+    /**
+     * @return the players in this payload; empty
+     *         when we're moving a whole server
+     */
+    public List<UUID> uuids()
+    {
+        if (players == null)
+            return Collections.emptyList();
+
+        return players.stream().map(ExtraCodecs.UNDASHED_UUID_PARSER).collect(Collectors.toList());
+    }
+
+    @Override
+    public String idempotencyKey()
+    {
+        if (idempotencyKey == null)
+            idempotencyKey = "bulk-switch-" + UUID.randomUUID();
+
+        return idempotencyKey;
+    }
+
+    @Override
+    public RedisChannel channel()
+    {
+        return RedisChannel.NETWORK;
+    }
+
+}
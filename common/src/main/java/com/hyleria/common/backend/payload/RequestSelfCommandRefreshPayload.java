@@ -3,7 +3,6 @@ package com.hyleria.common.backend.payload;
 import com.hyleria.common.redis.RedisChannel;
 import com.hyleria.common.redis.api.Focus;
 import com.hyleria.common.redis.api.Payload;
-import org.json.simple.JSONObject;
 
 /**
  * @author Ben (OutdatedVersion)
@@ -13,12 +12,6 @@ import org.json.simple.JSONObject;
 public class RequestSelfCommandRefreshPayload implements Payload
 {
 
-    @Override
-    public JSONObject asJSON()
-    {
-        return null;
-    }
-
     @Override
     public RedisChannel channel()
     {
@@ -0,0 +1,76 @@
+package com.hyleria.common.backend.payload;
+
+import com.google.gson.annotations.SerializedName;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.api.Focus;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.api.Priority;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Sent by every server every couple of seconds
+ * to let the proxies know it's alive, and how
+ * busy it is. The proxies use this to decide
+ * where players should go.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/21/2017 (12:40 PM)
+ */
+@Focus ( value = "network-server-heartbeat", priority = Priority.BULK )
+public class ServerHeartbeatPayload implements Payload
+{
+
+    /** the status reported by servers that aren't running a game; i.e. lobbies */
+    public static final String STATUS_OPEN = "OPEN";
+
+    /** the server's name; see {@link com.hyleria.common.backend.ServerConfig#name} */
+    public String name;
+
+    /** how many players are online */
+    public int players;
+
+    /** the most players the server will take */
+    @SerializedName ( "max_players" )
+    public int maxPlayers;
+
+    /** ticks per second over the last minute */
+    public double tps;
+
+    /** average milliseconds per tick as of late */
+    public double mspt;
+
+    /** the status of the game (see Coeus' {@code Status}), or {@link #STATUS_OPEN} */
+    public String status;
+
+    /** the game being played; {@code null} if none */
+    public String game;
+
+    /** when this was sent (epoch ms) */
+    @SerializedName ( "sent_at" )
+    public long sentAt;
+
+    /** for our generated codec */
+    ServerHeartbeatPayload()
+    {
+    }
+
+    public ServerHeartbeatPayload(String name, int players, int maxPlayers, double tps, double mspt, String status, String game)
+    {
+        this.name = checkNotNull(name);
+        this.players = players;
+        this.maxPlayers = maxPlayers;
+        this.tps = tps;
+        this.mspt = mspt;
+        this.status = status == null ? STATUS_OPEN : status;
+        this.game = game;
+        this.sentAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public RedisChannel channel()
+    {
+        return RedisChannel.NETWORK;
+    }
+
+}
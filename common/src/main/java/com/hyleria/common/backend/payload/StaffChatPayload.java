@@ -1,12 +1,11 @@
 package com.hyleria.common.backend.payload;
 
 import com.google.gson.annotations.SerializedName;
-import com.hyleria.common.json.JSONBuilder;
 import com.hyleria.common.redis.RedisChannel;
 import com.hyleria.common.redis.api.Focus;
 import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.api.Priority;
 import com.hyleria.common.reference.Role;
-import org.json.simple.JSONObject;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -14,7 +13,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @author Ben (OutdatedVersion)
  * @since Mar/25/2017 (6:47 PM)
  */
-@Focus ( "gen-staff-chat" )
+@Focus ( value = "gen-staff-chat", priority = Priority.BULK )
 public class StaffChatPayload implements Payload
 {
 
@@ -35,6 +34,11 @@ public class StaffChatPayload implements Payload
     @SerializedName ( "server_sent_on" )
     public String sentOn;
 
+    /** for our generated codec */
+    StaffChatPayload()
+    {
+    }
+
     public StaffChatPayload(String name, Role role, String colorEnum, String message, String sentOn)
     {
         this.name = checkNotNull(name);
@@ -44,12 +48,6 @@ public class StaffChatPayload implements Payload
         this.sentOn = checkNotNull(sentOn);
     }
 
-    @Override
-    public JSONObject asJSON()
-    {
-        return JSONBuilder.builder().addAllFields(this).asJSON();
-    }
-
     @Override
     public RedisChannel channel()
     {
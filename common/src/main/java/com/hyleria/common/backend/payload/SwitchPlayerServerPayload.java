@@ -1,11 +1,11 @@
 package com.hyleria.common.backend.payload;
 
 import com.google.gson.annotations.SerializedName;
-import com.hyleria.common.json.JSONBuilder;
 import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.api.Durable;
 import com.hyleria.common.redis.api.Focus;
 import com.hyleria.common.redis.api.Payload;
-import org.json.simple.JSONObject;
+import com.hyleria.common.redis.api.Priority;
 
 import java.util.UUID;
 
@@ -15,7 +15,8 @@ import static com.google.common.base.Preconditions.checkState;
  * @author Ben (OutdatedVersion)
  * @since Mar/25/2017 (2:53 PM)
  */
-@Focus ( "network-server-switch" )
+@Durable ( maxAgeMillis = 30_000 )
+@Focus ( value = "network-server-switch", priority = Priority.HIGH )
 public class SwitchPlayerServerPayload implements Payload
 {
 
@@ -33,6 +34,14 @@ public class SwitchPlayerServerPayload implements Payload
     @SerializedName ( "attempt_ping" )
     public boolean attemptPing;
 
+    /** sent w/ every copy of this payload so nobody moves the same player twice; made when first needed */
+    private transient String idempotencyKey;
+
+    /** for our generated codec */
+    SwitchPlayerServerPayload()
+    {
+    }
+
     /**
      * @param uuid the player's UUID as a string
      * @param name the player's username
@@ -75,9 +84,12 @@ public class SwitchPlayerServerPayload implements Payload
     }
 
     @Override
-    public JSONObject asJSON()
+    public String idempotencyKey()
     {
-        return JSONBuilder.builder().addAllFields(this).asJSON();
+        if (idempotencyKey == null)
+            idempotencyKey = "switch-" + UUID.randomUUID();
+
+        return idempotencyKey;
     }
 
     @Override
@@ -0,0 +1,94 @@
+package com.hyleria.common.backend.presence;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where a single player is on the network
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/20/2017 (2:12 PM)
+ */
+public class Presence
+{
+
+    /** the player's ID */
+    public final UUID uuid;
+
+    /** the player's name */
+    public final String name;
+
+    /** the server they're on; {@code null} if they're still connecting */
+    public final String server;
+
+    /** the proxy they're connected through */
+    public final String proxy;
+
+    /** when their proxy last vouched for them (epoch ms) */
+    public final long lastSeen;
+
+    /**
+     * @param uuid the player's ID
+     * @param name the player's name
+     * @param server the server they're on
+     * @param proxy the proxy they're connected through
+     * @param lastSeen when we last heard about them
+     */
+    public Presence(UUID uuid, String name, String server, String proxy, long lastSeen)
+    {
+        this.uuid = uuid;
+        this.name = name;
+        this.server = server;
+        this.proxy = proxy;
+        this.lastSeen = lastSeen;
+    }
+
+    /**
+     * @param server the server they're now on
+     * @return a copy of this presence on that server
+     */
+    public Presence on(String server)
+    {
+        return new Presence(uuid, name, server, proxy, System.currentTimeMillis());
+    }
+
+    /**
+     * @return this presence as the fields of a Redis hash
+     */
+    Map<String, String> asHash()
+    {
+        final Map<String, String> _hash = Maps.newHashMap();
+
+        _hash.put("name", name);
+        _hash.put("proxy", proxy);
+        _hash.put("last_seen", String.valueOf(lastSeen));
+
+        if (server != null)
+            _hash.put("server", server);
+
+        return _hash;
+    }
+
+    /**
+     * @param uuid the player's ID
+     * @param hash the fields of the Redis hash
+     * @return the presence, or {@code null} if
+     *         the hash is empty (expired/missing)
+     */
+    static Presence fromHash(UUID uuid, Map<String, String> hash)
+    {
+        if (hash == null || hash.isEmpty())
+            return null;
+
+        return new Presence(uuid, hash.get("name"), hash.get("server"), hash.get("proxy"), Long.parseLong(hash.getOrDefault("last_seen", "0")));
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " (" + uuid + ") on " + server + " via " + proxy;
+    }
+
+}
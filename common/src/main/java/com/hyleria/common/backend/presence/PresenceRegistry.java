@@ -0,0 +1,268 @@
+package com.hyleria.common.backend.presence;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.redis.api.Payload;
+import redis.clients.jedis.Pipeline;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Network-wide record of where every player is.
+ *
+ * <p>
+ * Each player has a hash in Redis ({@code presence:<uuid>})
+ * holding their server, proxy & when we last heard
+ * about them, plus a lowercase name -> UUID index.
+ * Both expire on their own unless the proxy the player
+ * is on keeps sending heartbeats; so a proxy going down
+ * doesn't leave ghosts behind. Lookups are held onto
+ * locally for a few seconds.
+ *
+ * <p>
+ * Every lookup here hits Redis (on a miss), so keep
+ * the synchronous methods off of the primary thread.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/20/2017 (2:20 PM)
+ */
+@Singleton
+public class PresenceRegistry
+{
+
+    /** how long a player's presence lives w/o a heartbeat */
+    public static final int TTL_SECONDS = 60;
+
+    /** how often proxies should send heartbeats; comfortably inside of {@link #TTL_SECONDS} */
+    public static final int HEARTBEAT_SECONDS = 20;
+
+    /** prefix for the hash of each player */
+    private static final String PRESENCE_KEY = "presence:";
+
+    /** prefix for our lowercase name -> UUID index */
+    private static final String NAME_KEY = "presence:name:";
+
+    /** our Redis instance */
+    private final RedisHandler redis;
+
+    /** recent lookups | we'd rather be a few seconds stale than ask Redis every time */
+    private final Cache<UUID, Presence> nearCache = CacheBuilder.newBuilder()
+                                                                .expireAfterWrite(5, TimeUnit.SECONDS)
+                                                                .maximumSize(10_000)
+                                                                .build();
+
+    /** runs lookups for our async methods | bounded, so a burst of them can't starve Redis' pool */
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    /**
+     * @param redis our Redis instance
+     */
+    @Inject
+    public PresenceRegistry(RedisHandler redis)
+    {
+        this.redis = redis;
+    }
+
+    /**
+     * @param uuid the player's ID
+     * @return where they are, if they're online
+     */
+    public Optional<Presence> find(UUID uuid)
+    {
+        final Presence _cached = nearCache.getIfPresent(uuid);
+
+        if (_cached != null)
+            return Optional.of(_cached);
+
+        final Presence _presence = Presence.fromHash(uuid, redis.resource(jedis -> jedis.hgetAll(PRESENCE_KEY + uuid)));
+
+        if (_presence != null)
+            nearCache.put(uuid, _presence);
+
+        return Optional.ofNullable(_presence);
+    }
+
+    /**
+     * @param name the player's name; any case
+     * @return where they are, if they're online
+     */
+    public Optional<Presence> find(String name)
+    {
+        final String _lower = name.toLowerCase();
+
+        for (Presence presence : nearCache.asMap().values())
+            if (presence.name != null && presence.name.toLowerCase().equals(_lower))
+                return Optional.of(presence);
+
+        final String _uuid = redis.resource(jedis -> jedis.get(NAME_KEY + _lower));
+
+        return _uuid == null ? Optional.empty() : find(UUID.fromString(_uuid));
+    }
+
+    /**
+     * @param uuid the player's ID
+     * @return a future completed w/ where they are
+     */
+    public CompletableFuture<Optional<Presence>> findAsync(UUID uuid)
+    {
+        return CompletableFuture.supplyAsync(() -> find(uuid), executor);
+    }
+
+    /**
+     * @param name the player's name; any case
+     * @return a future completed w/ where they are
+     */
+    public CompletableFuture<Optional<Presence>> findAsync(String name)
+    {
+        return CompletableFuture.supplyAsync(() -> find(name), executor);
+    }
+
+    /**
+     * Record where a player is; resetting
+     * their time to live in the process.
+     *
+     * @param presence where they are
+     * @return this registry
+     */
+    public PresenceRegistry update(Presence presence)
+    {
+        nearCache.put(presence.uuid, presence);
+
+        redis.resource(jedis ->
+        {
+            final Pipeline _pipeline = jedis.pipelined();
+
+            write(_pipeline, presence);
+            _pipeline.sync();
+
+            return null;
+        });
+
+        return this;
+    }
+
+    /**
+     * Keep every one of the provided players
+     * alive; all in one round trip. Proxies should
+     * call this every {@link #HEARTBEAT_SECONDS}.
+     *
+     * @param presences the players
+     * @return this registry
+     */
+    public PresenceRegistry heartbeat(Collection<Presence> presences)
+    {
+        if (presences.isEmpty())
+            return this;
+
+        redis.resource(jedis ->
+        {
+            final Pipeline _pipeline = jedis.pipelined();
+
+            presences.forEach(presence -> write(_pipeline, presence));
+            _pipeline.sync();
+
+            return null;
+        });
+
+        return this;
+    }
+
+    /**
+     * A player has left the network
+     *
+     * @param uuid their ID
+     * @param name their name
+     * @return this registry
+     */
+    public PresenceRegistry remove(UUID uuid, String name)
+    {
+        nearCache.invalidate(uuid);
+
+        redis.resource(jedis -> jedis.del(PRESENCE_KEY + uuid, NAME_KEY + name.toLowerCase()));
+
+        return this;
+    }
+
+    /**
+     * Send a payload to only where the provided
+     * player is. Payloads for {@link RedisChannel#NETWORK}
+     * go to the player's proxy; anything else to their
+     * server. If we don't know where they are we fall
+     * back to sending it to everyone.
+     *
+     * @param uuid the player
+     * @param payload the payload
+     * @return a future completed w/ whether we were
+     *         able to send it to a single place
+     */
+    public CompletableFuture<Boolean> route(UUID uuid, Payload payload)
+    {
+        return findAsync(uuid).thenApply(presence -> route(presence, payload));
+    }
+
+    /**
+     * @param name the player's name; any case
+     * @param payload the payload
+     * @return a future completed w/ whether we were
+     *         able to send it to a single place
+     * @see #route(UUID, Payload)
+     */
+    public CompletableFuture<Boolean> route(String name, Payload payload)
+    {
+        return findAsync(name).thenApply(presence -> route(presence, payload));
+    }
+
+    /**
+     * Stop running lookups
+     */
+    public void releaseResources()
+    {
+        executor.shutdown();
+    }
+
+    /**
+     * @param presence where the player is
+     * @param payload what we're sending
+     * @return whether we sent it to a single place
+     */
+    private boolean route(Optional<Presence> presence, Payload payload)
+    {
+        final String _target = presence.map(found -> payload.channel() == RedisChannel.NETWORK
+                                                     ? (found.proxy == null ? null : RedisChannel.forProxy(found.proxy))
+                                                     : (found.server == null ? null : RedisChannel.forServer(found.server)))
+                                       .orElse(null);
+
+        if (_target == null)
+        {
+            payload.publish(redis);
+            return false;
+        }
+
+        redis.publish(_target, payload);
+        return true;
+    }
+
+    /**
+     * @param pipeline where to write it
+     * @param presence what to write
+     */
+    private static void write(Pipeline pipeline, Presence presence)
+    {
+        final String _key = PRESENCE_KEY + presence.uuid;
+
+        pipeline.hmset(_key, presence.asHash());
+        pipeline.expire(_key, TTL_SECONDS);
+        pipeline.setex(NAME_KEY + presence.name.toLowerCase(), TTL_SECONDS, presence.uuid.toString());
+    }
+
+}
@@ -0,0 +1,8 @@
+/**
+ * Keeps track of where every player on the
+ * network is; which proxy they came in through,
+ * and which server they're currently on.
+ *
+ * @since May/20/2017 (2:10 PM)
+ */
+package com.hyleria.common.backend.presence;
@@ -0,0 +1,186 @@
+package com.hyleria.common.mongo;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import com.hyleria.common.account.Account;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Our local cache of accounts. Wraps a Guava
+ * {@link Cache} keyed by UUID, and keeps an
+ * index of (lowercase) usernames alongside it
+ * so a lookup by name doesn't mean going
+ * through every account we have loaded.
+ *
+ * <p>
+ * The index follows the cache no matter how an
+ * account leaves it; invalidation, eviction, or
+ * being replaced w/ a copy under a new name.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/27/2017 (12:15 PM)
+ */
+public class AccountCache
+{
+
+    /** the accounts themselves | UUID -> account */
+    private final Cache<UUID, Account> cache;
+
+    /** lowercase username -> UUID */
+    private final ConcurrentHashMap<String, UUID> names = new ConcurrentHashMap<>();
+
+    /**
+     * @param specification a Guava cache spec; {@code null} for no limits
+     */
+    public AccountCache(String specification)
+    {
+        this.cache = (specification != null ? CacheBuilder.from(specification) : CacheBuilder.newBuilder())
+                        .removalListener(this::removed)
+                        .build();
+    }
+
+    /**
+     * @param uuid the UUID of an account
+     * @return the account, if we have it
+     */
+    public Optional<Account> get(UUID uuid)
+    {
+        return Optional.ofNullable(cache.getIfPresent(uuid));
+    }
+
+    /**
+     * @param username the username of an account; any case
+     * @return the account, if we have it
+     */
+    public Optional<Account> get(String username)
+    {
+        final String _key = key(username);
+        final UUID _uuid = names.get(_key);
+
+        if (_uuid == null)
+            return Optional.empty();
+
+        final Account _account = cache.getIfPresent(_uuid);
+
+        // left behind; clean it up now
+        if (_account == null)
+            names.remove(_key, _uuid);
+
+        return Optional.ofNullable(_account);
+    }
+
+    /**
+     * @param uuid the UUID of an account
+     * @return whether we have it
+     */
+    public boolean contains(UUID uuid)
+    {
+        return cache.getIfPresent(uuid) != null;
+    }
+
+    /**
+     * @param username the username of an account; any case
+     * @return whether we have it
+     */
+    public boolean contains(String username)
+    {
+        return get(username).isPresent();
+    }
+
+    /**
+     * Add (or replace) an account
+     *
+     * @param account the account
+     * @return that same account
+     */
+    public Account put(Account account)
+    {
+        final Account _previous = cache.getIfPresent(account.uuid());
+
+        // the name they had before may no longer be theirs
+        if (_previous != null && _previous.username() != null && !_previous.username().equalsIgnoreCase(account.username()))
+            names.remove(key(_previous.username()), account.uuid());
+
+        if (account.username() != null)
+            names.put(key(account.username()), account.uuid());
+
+        cache.put(account.uuid(), account);
+
+        return account;
+    }
+
+    /**
+     * Call after an account we're holding
+     * has had its username changed in place
+     *
+     * @param account the account
+     * @param previous the username it had before
+     */
+    public void rename(Account account, String previous)
+    {
+        if (previous != null)
+            names.remove(key(previous), account.uuid());
+
+        if (cache.getIfPresent(account.uuid()) == account)
+            names.put(key(account.username()), account.uuid());
+    }
+
+    /**
+     * @param uuid the UUID of the account to drop
+     */
+    public void invalidate(UUID uuid)
+    {
+        cache.invalidate(uuid);
+    }
+
+    /**
+     * @return how many accounts we're holding
+     */
+    public long size()
+    {
+        return cache.size();
+    }
+
+    /**
+     * @return a read-only view of every account we're holding
+     */
+    public Map<UUID, Account> asMap()
+    {
+        return Collections.unmodifiableMap(cache.asMap());
+    }
+
+    /**
+     * Keeps our index in step w/ the cache
+     *
+     * @param notification what left, and why
+     */
+    private void removed(RemovalNotification<UUID, Account> notification)
+    {
+        // put(..) already took care of these
+        if (notification.getCause() == RemovalCause.REPLACED)
+            return;
+
+        final Account _account = notification.getValue();
+
+        if (_account != null && _account.username() != null)
+            names.remove(key(_account.username()), notification.getKey());
+    }
+
+    /**
+     * @param username a username
+     * @return how it's stored in our index
+     */
+    private static String key(String username)
+    {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+}
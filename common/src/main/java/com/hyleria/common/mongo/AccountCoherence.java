@@ -0,0 +1,143 @@
+package com.hyleria.common.mongo;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.account.Account;
+import com.hyleria.common.backend.payload.AccountUpdatePayload;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.redis.api.HandlesType;
+import com.hyleria.common.reference.Role;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the account cache on every server
+ * in step. Each change we save through
+ * {@link Database#commitChanges(Account)}
+ * goes out as an {@link AccountUpdatePayload};
+ * each one we receive is handed to
+ * {@link Database#apply(AccountUpdatePayload)}.
+ *
+ * <p>
+ * This way a permission check is still
+ * only ever a look into our local cache.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/28/2017 (4:05 PM)
+ */
+@Singleton
+public class AccountCoherence
+{
+
+    /** the database whose cache we're keeping up to date */
+    private final Database database;
+
+    /** where updates come from; also how we get back to the primary thread */
+    private final RedisHandler redis;
+
+    /** interested in role changes made elsewhere */
+    private final List<RoleListener> listeners = Lists.newCopyOnWriteArrayList();
+
+    /** how many updates we've received */
+    private final AtomicLong received = new AtomicLong();
+
+    /** how many of those our cache was behind on */
+    private final AtomicLong applied = new AtomicLong();
+
+    @Inject
+    public AccountCoherence(Database database, RedisHandler redis)
+    {
+        this.database = database.announceWith(update -> update.publish(redis));
+        this.redis = redis;
+
+        redis.registerHook(this);
+    }
+
+    /**
+     * @param listener run (on the primary thread, where
+     *                 available) when a cached account's
+     *                 role was changed on another server
+     * @return this instance
+     */
+    public AccountCoherence onRoleChange(RoleListener listener)
+    {
+        listeners.add(listener);
+        return this;
+    }
+
+    @HandlesType ( value = AccountUpdatePayload.class, primaryThread = true )
+    public void handleUpdate(AccountUpdatePayload payload)
+    {
+        received.incrementAndGet();
+
+        final Role _previous = database.cacheFetch(payload.uuid).map(Account::role).orElse(null);
+        final CompletableFuture<Optional<Account>> _applied = database.apply(payload);
+
+        // applied in place; we're already where we need to be
+        if (_applied.isDone())
+        {
+            _applied.thenAccept(fresh -> applied(payload.uuid, _previous, fresh));
+            return;
+        }
+
+        // reloading; hold off on telling anyone until the new copy is in our cache
+        final Executor _primary = redis.primaryThreadExecutor();
+
+        _applied.thenAcceptAsync(fresh -> applied(payload.uuid, _previous, fresh), _primary == null ? Runnable::run : _primary);
+    }
+
+    /**
+     * @param uuid whose account the update was for
+     * @param previous the role they had before; {@code null} if we didn't have them
+     * @param fresh our copy now, if it was behind
+     */
+    private void applied(UUID uuid, Role previous, Optional<Account> fresh)
+    {
+        if (!fresh.isPresent())
+            return;
+
+        applied.incrementAndGet();
+
+        final Role _now = fresh.get().role();
+
+        if (previous != null && _now != null && previous != _now)
+            listeners.forEach(listener -> listener.roleChanged(uuid, previous, _now));
+    }
+
+    /**
+     * @return how many updates we've received
+     */
+    public long received()
+    {
+        return received.get();
+    }
+
+    /**
+     * @return how many updates our cache was behind on
+     */
+    public long applied()
+    {
+        return applied.get();
+    }
+
+    /**
+     * Run when a role is changed elsewhere
+     */
+    @FunctionalInterface
+    public interface RoleListener
+    {
+        /**
+         * @param uuid whose role was changed
+         * @param previous the role they had
+         * @param fresh the role they have now
+         */
+        void roleChanged(UUID uuid, Role previous, Role fresh);
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.hyleria.common.mongo;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountCodec;
+import com.hyleria.common.redis.RedisHandler;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes accounts along when players switch
+ * servers. Right before a player is sent off
+ * the server they're on saves their account,
+ * then leaves a copy of it in Redis for a few
+ * seconds; the server they land on claims it
+ * during pre-login rather than loading it from
+ * Mongo all over again.
+ *
+ * <p>
+ * Anything that goes wrong along the way just
+ * means the usual load from Mongo happens.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/29/2017 (10:30 AM)
+ */
+@Singleton
+public class AccountHandoff
+{
+
+    /** how long (in seconds) a hand-off waits to be claimed */
+    private static final int TTL_SECONDS = 15;
+
+    /** what we (de)serialize accounts with */
+    private static final AccountCodec CODEC = new AccountCodec();
+
+    /** where the accounts come from */
+    private final Database database;
+
+    /** where we leave them */
+    private final RedisHandler redis;
+
+    /** how many accounts we've handed off */
+    private final AtomicLong handedOff = new AtomicLong();
+
+    /** how many were waiting for us on login */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** how many logins had nothing waiting */
+    private final AtomicLong missed = new AtomicLong();
+
+    @Inject
+    public AccountHandoff(Database database, RedisHandler redis)
+    {
+        this.database = database;
+        this.redis = redis;
+    }
+
+    /**
+     * @param uuid the player who's about to switch servers
+     * @return a future completed once they may be sent off
+     */
+    public CompletableFuture<Void> handOff(UUID uuid)
+    {
+        return handOff(Lists.newArrayList(uuid));
+    }
+
+    /**
+     * Save, then leave behind, the accounts of the
+     * provided players; all in one go. Send the
+     * players off once this completes, even if
+     * that is exceptionally.
+     *
+     * @param players the players who are about to switch servers
+     * @return a future completed once they may be sent off
+     */
+    public CompletableFuture<Void> handOff(Collection<UUID> players)
+    {
+        final List<Account> _accounts = Lists.newArrayListWithCapacity(players.size());
+
+        for (UUID uuid : players)
+            database.cacheFetch(uuid).ifPresent(_accounts::add);
+
+        if (_accounts.isEmpty())
+            return CompletableFuture.completedFuture(null);
+
+        return CompletableFuture.runAsync(() ->
+        {
+            // whoever claims these must never be behind Mongo; if
+            // we couldn't save them, they'll be loaded from it instead
+            if (database.saveNow(_accounts) < 0)
+                return;
+
+            redis.accountResource(jedis ->
+            {
+                final Pipeline _pipeline = jedis.pipelined();
+
+                for (Account account : _accounts)
+                    _pipeline.setex(key(account.uuid()), TTL_SECONDS, CODEC.toBytes(account));
+
+                _pipeline.sync();
+
+                return null;
+            });
+
+            handedOff.addAndGet(_accounts.size());
+        }, database::submitTask);
+    }
+
+    /**
+     * Take the account left behind for a player,
+     * if there is one. Only hands it back if they
+     * are still logging in under the same name &
+     * address; otherwise that's something we
+     * have to record anyways.
+     *
+     * <p>
+     * This blocks on Redis; keep it off of
+     * the primary thread.
+     *
+     * @param uuid the player's UUID
+     * @param name the name they're logging in under
+     * @param address the IP address they're logging in from
+     * @return their account, if it was waiting for us
+     */
+    public Optional<Account> claim(UUID uuid, String name, String address)
+    {
+        try
+        {
+            final byte[] _data = redis.accountResource(jedis ->
+            {
+                final Pipeline _pipeline = jedis.pipelined();
+                final Response<byte[]> _response = _pipeline.get(key(uuid));
+
+                // nobody else gets to use it
+                _pipeline.del(key(uuid));
+                _pipeline.sync();
+
+                return _response.get();
+            });
+
+            if (_data == null)
+            {
+                missed.incrementAndGet();
+                return Optional.empty();
+            }
+
+            final Account _account = CODEC.fromBytes(_data);
+
+            if (!name.equals(_account.username()) || !address.equals(_account.currentAddress()))
+            {
+                missed.incrementAndGet();
+                return Optional.empty();
+            }
+
+            claimed.incrementAndGet();
+
+            return Optional.of(_account);
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+            System.err.println("Failed to claim the account of [" + uuid + "]; loading it from Mongo");
+            System.err.println();
+
+            missed.incrementAndGet();
+
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return how many accounts we've handed off
+     */
+    public long handedOff()
+    {
+        return handedOff.get();
+    }
+
+    /**
+     * @return how many accounts were waiting for us on login
+     */
+    public long claimed()
+    {
+        return claimed.get();
+    }
+
+    /**
+     * @return how many logins had nothing waiting
+     */
+    public long missed()
+    {
+        return missed.get();
+    }
+
+    /**
+     * @param uuid a player's UUID
+     * @return the Redis key their account is left under
+     */
+    private static byte[] key(UUID uuid)
+    {
+        return ("hyleria-handoff." + uuid).getBytes(StandardCharsets.UTF_8);
+    }
+
+}
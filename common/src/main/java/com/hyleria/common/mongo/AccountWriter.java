@@ -0,0 +1,159 @@
+package com.hyleria.common.mongo;
+
+import com.google.common.collect.Lists;
+import com.hyleria.common.account.Account;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+
+/**
+ * Keeps track of which accounts have changes
+ * that haven't been saved, and writes them
+ * out; many accounts to a bulk write. When
+ * that happens is up to {@link Database}.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/31/2017 (9:40 AM)
+ */
+public class AccountWriter
+{
+
+    /** where accounts are saved */
+    private final MongoCollection<Document> accounts;
+
+    /** handed every account we manage to save */
+    private final Consumer<Collection<Account>> written;
+
+    /** accounts w/ changes waiting to be written */
+    private final Set<Account> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param accounts where accounts are saved
+     * @param written handed every account we manage to save
+     */
+    public AccountWriter(MongoCollection<Document> accounts, Consumer<Collection<Account>> written)
+    {
+        this.accounts = accounts;
+        this.written = written;
+    }
+
+    /**
+     * @param account an account w/ changes that
+     *                need to be written out
+     */
+    public void markDirty(Account account)
+    {
+        dirty.add(account);
+    }
+
+    /**
+     * @param account an account whose changes are
+     *                being taken care of elsewhere
+     */
+    public void forget(Account account)
+    {
+        dirty.remove(account);
+    }
+
+    /**
+     * @return whether there's nothing to write
+     */
+    public boolean isEmpty()
+    {
+        return dirty.isEmpty();
+    }
+
+    /**
+     * Write out every account w/ unsaved changes,
+     * merging each one's changes into a single
+     * update; all in one bulk write.
+     *
+     * @return how many accounts were written, or {@code -1} if that failed
+     */
+    public int flush()
+    {
+        if (dirty.isEmpty())
+            return 0;
+
+        final List<Account> _batch = Lists.newArrayList();
+
+        for (Account account : dirty)
+        {
+            dirty.remove(account);
+            _batch.add(account);
+        }
+
+        return write(_batch);
+    }
+
+    /**
+     * Save the changes to the provided accounts,
+     * in one bulk write, on this thread.
+     *
+     * @param batch accounts that might have changes
+     * @return how many accounts were written, or {@code -1}
+     *         if the write failed (we'll try again w/ the
+     *         next flush)
+     */
+    public int write(Collection<Account> batch)
+    {
+        dirty.removeAll(batch);
+
+        final List<Account> _written = Lists.newArrayListWithCapacity(batch.size());
+        final List<Account.Changes> _changes = Lists.newArrayListWithCapacity(batch.size());
+        final List<WriteModel<Document>> _models = Lists.newArrayListWithCapacity(batch.size());
+
+        for (Account account : batch)
+        {
+            final Account.Changes _drained = account.drainChanges();
+
+            if (_drained == null)
+                continue;
+
+            _written.add(account);
+            _changes.add(_drained);
+            // every write moves the version forward; that's what tells copies elsewhere apart
+            _models.add(new UpdateOneModel<>(eq("uuid", account.uuid().toString()), combine(_drained.asUpdate(), inc("version", 1L))));
+        }
+
+        if (_models.isEmpty())
+            return 0;
+
+        try
+        {
+            accounts.bulkWrite(_models, new BulkWriteOptions().ordered(false));
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+            System.err.println("Failed to save " + _models.size() + " account(s); will try again");
+            System.err.println();
+
+            // we'll get them next time around
+            for (int i = 0; i < _written.size(); i++)
+            {
+                _written.get(i).restoreChanges(_changes.get(i));
+                dirty.add(_written.get(i));
+            }
+
+            return -1;
+        }
+
+        written.accept(_written);
+
+        return _models.size();
+    }
+
+}
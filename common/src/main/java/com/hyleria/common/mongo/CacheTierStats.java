@@ -0,0 +1,94 @@
+package com.hyleria.common.mongo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How well one of the places we look for
+ * accounts is doing; our local cache, the
+ * shared one in Redis, or Mongo itself.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/29/2017 (2:15 PM)
+ */
+public class CacheTierStats
+{
+
+    /** which tier this is */
+    public final String name;
+
+    /** how many lookups found what they wanted */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** how many lookups came up empty */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** how many lookups failed outright */
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @param name see {@link #name}
+     */
+    public CacheTierStats(String name)
+    {
+        this.name = name;
+    }
+
+    /**
+     * @param hit whether a lookup found what it wanted
+     */
+    public void record(boolean hit)
+    {
+        (hit ? hits : misses).incrementAndGet();
+    }
+
+    /**
+     * Note that a lookup failed outright
+     */
+    public void recordError()
+    {
+        errors.incrementAndGet();
+    }
+
+    /**
+     * @return how many lookups found what they wanted
+     */
+    public long hits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * @return how many lookups came up empty
+     */
+    public long misses()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return how many lookups failed outright
+     */
+    public long errors()
+    {
+        return errors.get();
+    }
+
+    /**
+     * @return the portion (0 to 1) of lookups that were hits
+     */
+    public double hitRate()
+    {
+        final long _hits = hits.get();
+        final long _total = _hits + misses.get();
+
+        return _total == 0 ? 0 : (double) _hits / _total;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + " [hits=" + hits() + ", misses=" + misses() + ", errors=" + errors()
+                + ", rate=" + String.format("%.4f", hitRate()) + "]";
+    }
+
+}
@@ -2,33 +2,57 @@ package com.hyleria.common.mongo;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import com.google.common.util.concurrent.Futures;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountField;
+import com.hyleria.common.account.AccountView;
+import com.hyleria.common.backend.payload.AccountUpdatePayload;
 import com.hyleria.common.config.ConfigurationProvider;
 import com.hyleria.common.inject.StartParallel;
 import com.hyleria.common.mongo.codec.ExtraCodecs;
+import com.hyleria.common.reference.Role;
+import com.mongodb.Block;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.ReturnDocument;
 import org.bson.Document;
-import org.bson.codecs.configuration.CodecRegistries;
-import org.bson.codecs.configuration.CodecRegistry;
+import org.bson.conversions.Bson;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Updates.*;
 
 
 /**
@@ -43,6 +67,22 @@ import static com.mongodb.client.model.Filters.eq;
 public class Database
 {
 
+    /** how long (in ms) we wait for more lookups to go out w/ the first */
+    private static final long BATCH_WINDOW_MILLIS = 2;
+
+    /** the most accounts we ask for in a single query */
+    private static final int BATCH_CHUNK_SIZE = 500;
+
+    /** how many of a player's past addresses we hold onto */
+    private static final int PREVIOUS_ADDRESS_LIMIT = 25;
+
+    /** hand back only the version an account ended up at */
+    private static final FindOneAndUpdateOptions VERSION_OPTIONS = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER)
+                                                                                                .projection(Projections.include("version"));
+
+    /** create the account if it's missing, and hand back what we end up w/ */
+    private static final FindOneAndUpdateOptions LOGIN_OPTIONS = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER);
+
     /** our one and only Mongo client */
     private final MongoClient client;
 
@@ -52,24 +92,76 @@ public class Database
     /** the collection accounts are stored in (used for most things) */
     public final MongoCollection<Document> accounts;
 
+    /** that same collection; decoded straight into accounts */
+    private final MongoCollection<Account> typedAccounts;
+
     /** local cache for accounts | it is crucial that you properly handle the invalidation of items here. */
-    private Cache<UUID, Account> accountCache;
+    private AccountCache accountCache;
 
     /** run all account requests async */
     private ExecutorService executor;
 
+    /** keeps track of, and saves, accounts w/ changes waiting to be written */
+    private final AccountWriter writer;
+
+    /** has {@link #writer} write everything out every so often */
+    private ScheduledExecutorService flusher;
+
+    /** sends out batched lookups; apart from {@link #flusher} so a slow write never holds up a login */
+    private ScheduledExecutorService batcher;
+
+    /** tells every other server about changes we've saved; see {@link AccountCoherence} */
+    private volatile Consumer<AccountUpdatePayload> announcer;
+
+    /** what we were started up with */
+    private final DatabaseConfig config;
+
+    /** accounts shared by every server; {@code null} when not in use */
+    private volatile SharedAccountCache shared;
+
+    /** how our own cache is doing */
+    private final CacheTierStats localStats = new CacheTierStats("local");
+
+    /** how loading from Mongo is doing */
+    private final CacheTierStats mongoStats = new CacheTierStats("mongo");
+
+    /** partial accounts; kept apart from {@link #accountCache} | UUID -> view */
+    private final Cache<UUID, AccountView> views = CacheBuilder.newBuilder()
+                                                               .expireAfterWrite(60, TimeUnit.SECONDS)
+                                                               .maximumSize(4096)
+                                                               .build();
+
+    /** the views we've looked up by name | lowercase name -> UUID */
+    private final Cache<String, UUID> viewNames = CacheBuilder.newBuilder()
+                                                              .expireAfterWrite(60, TimeUnit.SECONDS)
+                                                              .maximumSize(4096)
+                                                              .build();
+
+    /** how our cache of partial accounts is doing */
+    private final CacheTierStats viewStats = new CacheTierStats("views");
+
+    /** lookups waiting to go out together | UUID or lowercase name -> its future; guarded by itself */
+    private final Map<Object, CompletableFuture<Optional<Account>>> batch = Maps.newHashMap();
+
+    /** lookups currently waiting on Mongo | UUID or lowercase name -> result */
+    private final ConcurrentHashMap<Object, CompletableFuture<Optional<Account>>> inFlight = new ConcurrentHashMap<>();
+
+    /** lowercase names we recently found no account under */
+    private final Cache<String, Boolean> unknownNames = CacheBuilder.newBuilder()
+                                                                    .expireAfterWrite(30, TimeUnit.SECONDS)
+                                                                    .maximumSize(1024)
+                                                                    .build();
+
     @Inject
     public Database(ConfigurationProvider provider)
     {
         final DatabaseConfig _config = provider.read("database/{env}", DatabaseConfig.class);
+        config = _config;
         final MongoClientOptions.Builder _builder = new MongoClientOptions.Builder();
 
 
         // setup custom BSON codecs for the mongo driver
-        final CodecRegistry _default = MongoClient.getDefaultCodecRegistry();
-        final CodecRegistry _fresh = CodecRegistries.fromCodecs(ExtraCodecs.HYLERIA_CODECS);
-
-        _builder.codecRegistry(CodecRegistries.fromRegistries(_default, _fresh));
+        _builder.codecRegistry(ExtraCodecs.HYLERIA_REGISTRY);
 
 
         client = new MongoClient(new ServerAddress(_config.connection.host, _config.connection.port),
@@ -78,26 +170,312 @@ public class Database
 
         mongo = client.getDatabase(_config.database);
         accounts = mongo.getCollection(_config.collection);
+        typedAccounts = accounts.withDocumentClass(Account.class);
+        writer = new AccountWriter(accounts, this::evictShared);
 
         executor = Executors.newCachedThreadPool();
 
-        if (_config.cacheSpecification != null)
-            accountCache = CacheBuilder.from(_config.cacheSpecification).build();
-        else
-            accountCache = CacheBuilder.newBuilder().build();
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            final Thread _thread = new Thread(runnable, "Hyleria Account Flusher");
+            _thread.setDaemon(true);
+
+            return _thread;
+        });
+
+        batcher = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            final Thread _thread = new Thread(runnable, "Hyleria Account Batcher");
+            _thread.setDaemon(true);
+
+            return _thread;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flush, _config.flushIntervalSeconds, _config.flushIntervalSeconds, TimeUnit.SECONDS);
+
+        accountCache = new AccountCache(_config.cacheSpecification);
     }
 
     /**
      * Unbind the allocated resources for
      * this database instance.
      *
-     * Note: Our {@link #executor} will finish executing
-     * the set of tasks it currently has queued.
+     * Note: Our {@link #executor} gets a few seconds to
+     * finish the tasks it has queued, and every account
+     * w/ unsaved changes is written out before we close.
      */
     public void releaseResources()
     {
-        client.close();
+        flusher.shutdownNow();
+        batcher.shutdownNow();
+        abandonBatch(new RejectedExecutionException("Shutting down"));
         executor.shutdown();
+
+        try
+        {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+        client.close();
+    }
+
+    /**
+     * Let us know that the provided account has
+     * changes that need to be saved. They'll be
+     * written out w/ our next flush.
+     *
+     * @param account the account
+     * @return this database
+     */
+    public Database markDirty(Account account)
+    {
+        writer.markDirty(account);
+        return this;
+    }
+
+    /**
+     * Save the changes to the provided account
+     * now, rather than waiting on our next flush;
+     * i.e. when they're leaving.
+     *
+     * @param account the account
+     * @return a future for this task
+     */
+    public Future<?> save(Account account)
+    {
+        writer.forget(account);
+
+        return executor.submit(() -> writer.write(Collections.singletonList(account)));
+    }
+
+    /**
+     * Save the changes to the provided accounts,
+     * in one bulk write, on this thread.
+     *
+     * @param batch the accounts
+     * @return how many accounts were written, or {@code -1} if that failed
+     */
+    public int saveNow(Collection<Account> batch)
+    {
+        return writer.write(batch);
+    }
+
+    /**
+     * Write out every account w/ unsaved changes,
+     * merging each one's changes into a single
+     * update; all in one bulk write. That
+     * includes anything we have cached that
+     * was changed before we started tracking it.
+     *
+     * @return how many accounts were written, or {@code -1} if that failed
+     */
+    public int flush()
+    {
+        accountCache.asMap().values().stream().filter(Account::isDirty).forEach(writer::markDirty);
+
+        return writer.flush();
+    }
+
+    /**
+     * Save the changes to the provided account
+     * right away, as a new version of it, then
+     * let every other server know about it.
+     *
+     * @param account the account
+     * @return the version it's now at
+     */
+    public CompletableFuture<Long> commitChanges(Account account)
+    {
+        writer.forget(account);
+
+        return CompletableFuture.supplyAsync(() ->
+        {
+            final Account.Changes _changes = account.drainChanges();
+
+            if (_changes == null)
+                return account.version();
+
+            final long _version;
+
+            try
+            {
+                final Document _after = accounts.findOneAndUpdate(eq("uuid", account.uuid().toString()),
+                                                                  combine(_changes.asUpdate(), inc("version", 1L)),
+                                                                  VERSION_OPTIONS);
+
+                _version = ((Number) _after.get("version")).longValue();
+            }
+            catch (Exception ex)
+            {
+                account.restoreChanges(_changes);
+                markDirty(account);
+
+                throw ex;
+            }
+
+            account.advance(_version, null);
+            invalidateViews(account.uuid());
+            writeThrough(Collections.singletonList(account));
+
+            final Object _role = _changes.get("role");
+
+            if (announcer != null)
+                announcer.accept(new AccountUpdatePayload(account.uuid(), _version, _role == null ? null : Role.valueOf((String) _role)));
+
+            return _version;
+        }, executor);
+    }
+
+    /**
+     * @param announcer what lets the other servers
+     *                  know about changes we've saved
+     * @return this database
+     */
+    public Database announceWith(Consumer<AccountUpdatePayload> announcer)
+    {
+        this.announcer = announcer;
+        return this;
+    }
+
+    /**
+     * Bring our cached copy of an account in
+     * line w/ a change made elsewhere. A change
+     * right after the version we have is applied
+     * in place; if we've missed any, or there's
+     * nothing we can apply, the account is
+     * reloaded (keeping our unsaved changes).
+     *
+     * @param update the change
+     * @return completes once our copy is up to date w/
+     *         that copy; empty if ours wasn't behind (or
+     *         couldn't be reloaded)
+     */
+    public CompletableFuture<Optional<Account>> apply(AccountUpdatePayload update)
+    {
+        // partial copies are cheap to load again
+        invalidateViews(update.uuid);
+
+        final Account _cached = accountCache.get(update.uuid).orElse(null);
+
+        // not ours to worry about, or old news
+        if (_cached == null || update.version <= _cached.version())
+            return CompletableFuture.completedFuture(Optional.empty());
+
+        if (update.role != null && update.version == _cached.version() + 1)
+            return CompletableFuture.completedFuture(_cached.advance(update.version, update.role) ? Optional.of(_cached) : Optional.empty());
+
+        return refresh(_cached);
+    }
+
+    /**
+     * Replace our copy of an account w/
+     * what is currently in Mongo
+     *
+     * @param stale the copy we have now
+     * @return completes w/ the copy now in our cache;
+     *         empty if we didn't replace it
+     */
+    private CompletableFuture<Optional<Account>> refresh(Account stale)
+    {
+        return CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                final Account _fresh = typedAccounts.find(eq("uuid", stale.uuid().toString())).limit(1).first();
+
+                // they may have left (or been reloaded) while we were waiting
+                if (_fresh == null || accountCache.get(stale.uuid()).orElse(null) != stale)
+                    return Optional.<Account>empty();
+
+                final Account.Changes _pending = stale.drainChanges();
+
+                if (_pending != null)
+                {
+                    writer.forget(stale);
+                    _fresh.restoreChanges(_pending);
+                    writer.markDirty(_fresh);
+                }
+
+                writeThrough(Collections.singletonList(_fresh));
+                cacheCommit(_fresh);
+
+                return Optional.of(_fresh);
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+                System.err.println("Failed to reload the account of [" + stale.uuid() + "]");
+                System.err.println();
+
+                return Optional.<Account>empty();
+            }
+        }, executor);
+    }
+
+    /**
+     * @param written accounts we just saved; our shared
+     *                cache is updated w/ them, if in use
+     */
+    private void writeThrough(Collection<Account> written)
+    {
+        final SharedAccountCache _shared = shared;
+
+        if (_shared != null)
+            _shared.putAll(written);
+    }
+
+    /**
+     * We don't know which version a bulk write
+     * left each account at, so rather than
+     * guess we have our shared cache drop them;
+     * the next lookup loads them from Mongo.
+     *
+     * @param written accounts we just saved
+     */
+    private void evictShared(Collection<Account> written)
+    {
+        final SharedAccountCache _shared = shared;
+
+        if (_shared != null)
+            _shared.invalidateAll(written);
+    }
+
+    /**
+     * Put a shared (Redis) cache between our
+     * own cache and Mongo
+     *
+     * @param shared the cache
+     * @return this database
+     */
+    public Database sharedCache(SharedAccountCache shared)
+    {
+        this.shared = shared;
+        return this;
+    }
+
+    /**
+     * @return how each place we look for accounts is doing;
+     *         most local first
+     */
+    public List<CacheTierStats> tierStats()
+    {
+        final SharedAccountCache _shared = shared;
+
+        return _shared == null ? Lists.newArrayList(localStats, mongoStats)
+                               : Lists.newArrayList(localStats, _shared.stats(), mongoStats);
+    }
+
+    /**
+     * @return what we were started up with
+     */
+    public DatabaseConfig config()
+    {
+        return config;
     }
 
     /**
@@ -112,7 +490,7 @@ public class Database
     /**
      * @return our local cache containing loaded accounts
      */
-    public Cache<UUID, Account> cache()
+    public AccountCache cache()
     {
         return accountCache;
     }
@@ -127,7 +505,7 @@ public class Database
      */
     public boolean cacheContains(String username)
     {
-        return accountCache.asMap().entrySet().stream().anyMatch(entry -> entry.getValue().username().equals(username));
+        return accountCache.contains(username);
     }
 
     /**
@@ -141,7 +519,7 @@ public class Database
      */
     public boolean cacheContains(UUID uuid)
     {
-        return accountCache.asMap().containsKey(uuid);
+        return accountCache.contains(uuid);
     }
 
     /**
@@ -165,8 +543,14 @@ public class Database
      */
     public Account cacheCommit(Account account)
     {
-        accountCache.put(account.uuid(), account);
-        return account;
+        // whatever happens to them now is saved w/ our next flush
+        account.trackChanges(writer::markDirty);
+
+        // they exist now
+        if (account.username() != null)
+            unknownNames.invalidate(account.username().toLowerCase(Locale.ROOT));
+
+        return accountCache.put(account);
     }
 
     /**
@@ -178,11 +562,7 @@ public class Database
      */
     public Optional<Account> cacheFetch(String username)
     {
-        return accountCache.asMap().entrySet()
-                                   .stream()
-                                   .filter(entry -> entry.getValue().username().equalsIgnoreCase(username))
-                                   .findFirst()
-                                   .flatMap(entry -> Optional.of(entry.getValue()));
+        return accountCache.get(username);
     }
 
     /**
@@ -194,7 +574,7 @@ public class Database
      */
     public Optional<Account> cacheFetch(UUID uuid)
     {
-        return Optional.ofNullable(accountCache.getIfPresent(uuid));
+        return accountCache.get(uuid);
     }
 
     /**
@@ -205,9 +585,9 @@ public class Database
      * @return The account we're requesting
      *         wrapped in an {@link Optional}
      */
-    public Future<Optional<Account>> fetchAccount(String username)
+    public CompletableFuture<Optional<Account>> fetchAccount(String username)
     {
-        return fetchAccount(null, username, true, true);
+        return fetchAccount(null, username, false);
     }
 
     /**
@@ -219,9 +599,14 @@ public class Database
      * @return The account we're working with
      *         wrapped in an {@link Optional}
      */
-    public Future<Optional<Account>> fetchAccount(UUID uuid, Consumer<Optional<Account>> callback)
+    public CompletableFuture<Optional<Account>> fetchAccount(UUID uuid, Consumer<Optional<Account>> callback)
     {
-        return fetchAccount(uuid, null, true, true);
+        final CompletableFuture<Optional<Account>> _future = fetchAccount(uuid, null, false);
+
+        if (callback != null)
+            _future.thenAccept(callback);
+
+        return _future;
     }
 
     /**
@@ -236,77 +621,437 @@ public class Database
      */
     public Optional<Account> fetchAccountSync(UUID uuid)
     {
-        return fetchAccount(uuid, null, true, false);
+        try
+        {
+            // run right here, unless someone else is already on it
+            return fetchAccount(uuid, null, true).join();
+        }
+        catch (CompletionException ex)
+        {
+            throw new RuntimeException("Failed to load account for [" + uuid + "]", ex.getCause());
+        }
     }
 
     /**
-     * Internal Method
+     * Record a player logging in, and get their
+     * account back; all in one round trip. Creates
+     * the account if this is their first time here.
      *
      * <p>
-     * Loads an account from our main Mongo
-     * account & wraps it in an {@linkplain Optional}
-     * or returns an empty one if the player
-     * doesn't exist within the account collection.
+     * Always goes to Mongo, even if our shared
+     * cache has them; every login is recorded.
      *
      * <p>
-     * This method takes both a username & UUID.
-     * Saves on some duplicated code.
-     * Use the overloaded methods instead.
+     * This blocks; it's meant for pre-login.
      *
-     * @param uuid if we're looking someone up by UUID..
-     * @param username if we're looking someone up by username..
-     * @param useCache do we want to check our cache?
-     * @return what we were looking for. absolutely no
-     *         real verification goes into the return value for
-     *         this method. purely up to proper implementation.
+     * @param uuid the player's UUID
+     * @param name the name they're logging in under
+     * @param address the IP address they're logging in from
+     * @return their (up to date) account
      */
-    @SuppressWarnings ( "unchecked" )
-    private <R> R fetchAccount(UUID uuid, String username, boolean useCache, boolean async)
+    public Account login(UUID uuid, String name, String address)
     {
-        boolean _useUsername = uuid == null && username != null;
+        final Bson _update = combine(set("name", name),
+                                     set("name_lower", name.toLowerCase(Locale.ROOT)),
+                                     set("current_address", address),
+                                     setOnInsert("uuid", uuid.toString()),
+                                     setOnInsert("role", Role.PLAYER.name()),
+                                     inc("version", 1L),
+                                     addToSet("previous_names", name),
+                                     pushEach("previous_addresses",
+                                              Collections.singletonList(new Account.PreviousAddress(address, System.currentTimeMillis())),
+                                              new PushOptions().slice(-PREVIOUS_ADDRESS_LIMIT)));
+
+        final Account _account = typedAccounts.findOneAndUpdate(eq("uuid", uuid.toString()), _update, LOGIN_OPTIONS);
+
+        invalidateViews(uuid);
+
+        // the name may have belonged to someone else before
+        viewNames.invalidate(name.toLowerCase(Locale.ROOT));
+        writeThrough(Collections.singletonList(_account));
+
+        return _account;
+    }
+
+    /**
+     * Grab only some fields of an account. If
+     * we have the whole thing cached, that's
+     * what you'll get; otherwise just the fields
+     * asked for are loaded (&amp; cached for a bit).
+     *
+     * @param uuid the UUID of the player
+     * @param fields the fields we need
+     * @return a view of their account
+     */
+    public CompletableFuture<Optional<AccountView>> fetchView(UUID uuid, Collection<AccountField> fields)
+    {
+        final Optional<Account> _full = cacheFetch(uuid);
+
+        if (_full.isPresent())
+            return CompletableFuture.completedFuture(_full.map(AccountView::of));
+
+        return fetchView(uuid, eq("uuid", uuid.toString()), fields);
+    }
+
+    /**
+     * Grab only some fields of an account,
+     * by the player's username.
+     *
+     * @param username the username of the player; any case
+     * @param fields the fields we need
+     * @return a view of their account
+     * @see #fetchView(UUID, Collection)
+     */
+    public CompletableFuture<Optional<AccountView>> fetchView(String username, Collection<AccountField> fields)
+    {
+        final Optional<Account> _full = cacheFetch(username);
+
+        if (_full.isPresent())
+            return CompletableFuture.completedFuture(_full.map(AccountView::of));
+
+        final String _key = username.toLowerCase(Locale.ROOT);
+
+        if (unknownNames.getIfPresent(_key) != null)
+            return CompletableFuture.completedFuture(Optional.empty());
+
+        return fetchView(_key, eq("name_lower", _key), fields);
+    }
+
+    /**
+     * @param key UUID or lowercase name
+     * @param filter how to find the account in Mongo
+     * @param fields the fields we need
+     * @return a view of the account
+     */
+    private CompletableFuture<Optional<AccountView>> fetchView(Object key, Bson filter, Collection<AccountField> fields)
+    {
+        final UUID _uuid = key instanceof UUID ? (UUID) key : viewNames.getIfPresent(key);
+        final AccountView _cached = _uuid == null ? null : views.getIfPresent(_uuid);
+        final boolean _hit = _cached != null && _cached.covers(fields);
+
+        viewStats.record(_hit);
+
+        if (_hit)
+            return CompletableFuture.completedFuture(Optional.of(_cached));
+
+        // anything we already had is worth loading again
+        final Set<AccountField> _wanted = EnumSet.noneOf(AccountField.class);
+
+        _wanted.addAll(fields);
+
+        if (_cached != null)
+            _wanted.addAll(_cached.fields());
 
-        final Callable<Optional<Account>> _transaction = () ->
+        return CompletableFuture.supplyAsync(() ->
         {
-            // if we request to we'll attempt to grab this
-            // account from our local cache before making
-            // a lengthy request to our account
-            if (useCache)
-            {
-                Optional<Account> _cacheHit;
+            final Account _partial = typedAccounts.find(filter)
+                                                  .projection(Projections.include(AccountField.keys(_wanted)))
+                                                  .limit(1)
+                                                  .first();
+
+            mongoStats.record(_partial != null);
 
-                if (_useUsername)
-                    _cacheHit = cacheFetch(username);
-                else
-                    _cacheHit = cacheFetch(uuid);
+            if (_partial == null)
+            {
+                if (key instanceof String)
+                    unknownNames.put((String) key, Boolean.TRUE);
 
-                if (_cacheHit.isPresent())
-                    return _cacheHit;
+                return Optional.empty();
             }
 
+            final AccountView _view = AccountView.partial(_partial, _wanted);
+            views.put(_view.uuid(), _view);
 
-            // hit up mongo
-            Document _document = accounts.find(!_useUsername
-                                               ? eq("uuid", uuid.toString())
-                                               : eq("name_lower", username.toLowerCase())).limit(1).first();
+            if (key instanceof String)
+                viewNames.put((String) key, _view.uuid());
 
-            return _document == null ? Optional.empty()
-                                     : Optional.of(new Account().populateFromDocument(_document));
-        };
+            return Optional.of(_view);
+        }, executor);
+    }
 
+    /**
+     * @param uuid an account whose views are no longer right
+     */
+    private void invalidateViews(UUID uuid)
+    {
+        views.invalidate(uuid);
+    }
+
+    /**
+     * @return how our cache of partial accounts is doing
+     */
+    public CacheTierStats viewStats()
+    {
+        return viewStats;
+    }
+
+    /**
+     * Grab the accounts of many players at
+     * once. Whatever we don't have cached is
+     * loaded in as few queries as we can.
+     *
+     * @param uuids the UUIDs of the players
+     * @return UUID -> account, for each account
+     *         that exists
+     */
+    public CompletableFuture<Map<UUID, Account>> fetchAccounts(Collection<UUID> uuids)
+    {
+        final Map<UUID, CompletableFuture<Optional<Account>>> _lookups = Maps.newHashMap();
+
+        for (UUID uuid : uuids)
+            _lookups.computeIfAbsent(uuid, key -> fetchAccount(key, null, false));
+
+        return collect(_lookups);
+    }
+
+    /**
+     * Grab the accounts of many players at
+     * once, by their usernames.
+     *
+     * @param usernames the usernames of the players; any case
+     * @return username (as provided) -> account,
+     *         for each account that exists
+     */
+    public CompletableFuture<Map<String, Account>> fetchAccountsByName(Collection<String> usernames)
+    {
+        final Map<String, CompletableFuture<Optional<Account>>> _lookups = Maps.newHashMap();
+
+        for (String username : usernames)
+            _lookups.computeIfAbsent(username, key -> fetchAccount(null, key, false));
+
+        return collect(_lookups);
+    }
+
+    /**
+     * @param lookups key -> the lookup for its account
+     * @param <K> the type of key
+     * @return a future w/ every account that was found
+     */
+    private static <K> CompletableFuture<Map<K, Account>> collect(Map<K, CompletableFuture<Optional<Account>>> lookups)
+    {
+        return CompletableFuture.allOf(lookups.values().toArray(new CompletableFuture[lookups.size()])).thenApply(ignored ->
+        {
+            final Map<K, Account> _found = Maps.newHashMapWithExpectedSize(lookups.size());
+
+            lookups.forEach((key, lookup) -> lookup.join().ifPresent(account -> _found.put(key, account)));
+
+            return _found;
+        });
+    }
+
+    /**
+     * Add a lookup to the next batch; starting
+     * one if there isn't one on the way.
+     *
+     * @param key a UUID or lowercase name
+     * @param future the lookup
+     */
+    private void enqueue(Object key, CompletableFuture<Optional<Account>> future)
+    {
+        synchronized (batch)
+        {
+            batch.put(key, future);
+
+            if (batch.size() > 1)
+                return;
+        }
 
         try
         {
-            if (async)
-                return (R) executor.submit(_transaction);
+            batcher.schedule(() ->
+            {
+                final Map<Object, CompletableFuture<Optional<Account>>> _batch;
+
+                synchronized (batch)
+                {
+                    _batch = Maps.newHashMap(batch);
+                    batch.clear();
+                }
+
+                try
+                {
+                    executor.execute(() -> load(_batch));
+                }
+                catch (RejectedExecutionException ex)
+                {
+                    abandon(_batch, ex);
+                }
+            }, BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            abandonBatch(ex);
+        }
+    }
+
+    /**
+     * Fail every lookup still waiting on a batch
+     *
+     * @param ex why
+     */
+    private void abandonBatch(Exception ex)
+    {
+        final Map<Object, CompletableFuture<Optional<Account>>> _batch;
+
+        synchronized (batch)
+        {
+            _batch = Maps.newHashMap(batch);
+            batch.clear();
+        }
+
+        abandon(_batch, ex);
+    }
+
+    /**
+     * @param lookups lookups that will never be run
+     * @param ex why
+     */
+    private void abandon(Map<Object, CompletableFuture<Optional<Account>>> lookups, Exception ex)
+    {
+        lookups.forEach((key, lookup) ->
+        {
+            inFlight.remove(key, lookup);
+            lookup.completeExceptionally(ex);
+        });
+    }
+
+    /**
+     * Load a batch of accounts; first from our
+     * shared cache, then from Mongo w/ as few
+     * {@code $in} queries as we can. Every lookup
+     * is completed, and no longer in flight, once
+     * this returns.
+     *
+     * @param lookups UUID or lowercase name -> its lookup
+     */
+    private void load(Map<Object, CompletableFuture<Optional<Account>>> lookups)
+    {
+        final Map<UUID, CompletableFuture<Optional<Account>>> _byUUID = Maps.newHashMap();
+        final Map<String, CompletableFuture<Optional<Account>>> _byName = Maps.newHashMap();
+
+        lookups.forEach((key, lookup) ->
+        {
+            if (key instanceof UUID)
+                _byUUID.put((UUID) key, lookup);
             else
-                return (R) Futures.immediateFuture(_transaction.call());
+                _byName.put((String) key, lookup);
+        });
+
+        try
+        {
+            final SharedAccountCache _shared = shared;
+
+            if (_shared != null)
+            {
+                _shared.getAll(_byUUID.keySet()).forEach((uuid, account) -> _byUUID.remove(uuid).complete(Optional.of(account)));
+
+                for (String name : Lists.newArrayList(_byName.keySet()))
+                    _shared.get(name).ifPresent(account -> _byName.remove(name).complete(Optional.of(account)));
+            }
+
+            final List<Account> _loaded = Lists.newArrayList();
+
+            for (List<UUID> chunk : Iterables.partition(Lists.newArrayList(_byUUID.keySet()), BATCH_CHUNK_SIZE))
+            {
+                typedAccounts.find(in("uuid", chunk.stream().map(UUID::toString).collect(Collectors.toList()))).forEach((Block<Account>) account ->
+                {
+                    final CompletableFuture<Optional<Account>> _lookup = _byUUID.remove(account.uuid());
+
+                    if (_lookup != null)
+                    {
+                        _loaded.add(account);
+                        _lookup.complete(Optional.of(account));
+                    }
+                });
+            }
+
+            for (List<String> chunk : Iterables.partition(Lists.newArrayList(_byName.keySet()), BATCH_CHUNK_SIZE))
+            {
+                typedAccounts.find(in("name_lower", chunk)).forEach((Block<Account>) account ->
+                {
+                    final CompletableFuture<Optional<Account>> _lookup = _byName.remove(account.username().toLowerCase(Locale.ROOT));
+
+                    if (_lookup != null)
+                    {
+                        _loaded.add(account);
+                        _lookup.complete(Optional.of(account));
+                    }
+                });
+            }
+
+            _loaded.forEach(account -> mongoStats.record(true));
+            writeThrough(_loaded);
+
+            // whatever is left doesn't exist
+            _byUUID.values().forEach(lookup -> mongoStats.record(false));
+            _byName.values().forEach(lookup -> mongoStats.record(false));
+            _byName.keySet().forEach(name -> unknownNames.put(name, Boolean.TRUE));
+
+            _byUUID.values().forEach(lookup -> lookup.complete(Optional.empty()));
+            _byName.values().forEach(lookup -> lookup.complete(Optional.empty()));
         }
-        catch (Exception ex)
+        catch (Throwable ex)
         {
-            ex.printStackTrace();
+            lookups.values().forEach(lookup -> lookup.completeExceptionally(ex));
         }
+        finally
+        {
+            lookups.forEach(inFlight::remove);
+        }
+    }
+
+    /**
+     * Internal Method
+     *
+     * <p>
+     * Loads an account from our main Mongo
+     * account & wraps it in an {@linkplain Optional}
+     * or returns an empty one if the player
+     * doesn't exist within the account collection.
+     *
+     * <p>
+     * Concurrent requests for the same account
+     * share a single query (& so the same
+     * {@link Account} instance), and names we
+     * recently found nobody under aren't looked
+     * up again for a little while. Lookups that
+     * don't wait go out together w/ any others
+     * made within a couple milliseconds.
+     *
+     * @param uuid if we're looking someone up by UUID..
+     * @param username if we're looking someone up by username..
+     * @param wait whether to run the query on this thread
+     * @return what we were looking for
+     */
+    private CompletableFuture<Optional<Account>> fetchAccount(UUID uuid, String username, boolean wait)
+    {
+        final boolean _useUsername = uuid == null && username != null;
+
+        // if we have it, we're done
+        final Optional<Account> _cacheHit = _useUsername ? cacheFetch(username) : cacheFetch(uuid);
+
+        localStats.record(_cacheHit.isPresent());
+
+        if (_cacheHit.isPresent())
+            return CompletableFuture.completedFuture(_cacheHit);
+
+        final Object _key = _useUsername ? username.toLowerCase(Locale.ROOT) : uuid;
+
+        if (_useUsername && unknownNames.getIfPresent(_key) != null)
+            return CompletableFuture.completedFuture(Optional.empty());
+
+        final CompletableFuture<Optional<Account>> _fresh = new CompletableFuture<>();
+        final CompletableFuture<Optional<Account>> _inFlight = inFlight.putIfAbsent(_key, _fresh);
+
+        if (_inFlight != null)
+            return _inFlight;
+
+        if (wait)
+            load(Collections.singletonMap(_key, _fresh));
+        else
+            enqueue(_key, _fresh);
 
-        throw new RuntimeException("Something went seriously wrong whilst processing that request.");
+        return _fresh;
     }
 
 }
@@ -30,6 +30,14 @@ public class DatabaseConfig
     @SerializedName ( "cache_spec" )
     public String cacheSpecification;
 
+    /** how often (in seconds) we write out account changes */
+    @SerializedName ( "flush_interval_seconds" )
+    public long flushIntervalSeconds = 5;
+
+    /** how long (in seconds) accounts stay in our shared Redis cache; 0 to not use it */
+    @SerializedName ( "shared_cache_ttl_seconds" )
+    public int sharedCacheTTLSeconds = 300;
+
     /**
      * Represents a set of info holding
      * the information for a basic
@@ -0,0 +1,325 @@
+package com.hyleria.common.mongo;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountCodec;
+import com.hyleria.common.redis.RedisHandler;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A second level of caching for accounts,
+ * shared by every server, sitting in Redis
+ * between each server's {@link AccountCache}
+ * and Mongo. That way a whole network of
+ * servers (re)loading the same players, like
+ * after a proxy restarts, only hits Mongo
+ * once per player.
+ *
+ * <p>
+ * Each account is a hash of its version &
+ * its BSON, which expires after a while. An
+ * account is only ever replaced by a newer
+ * version of itself. Whatever {@link Database}
+ * saves one at a time goes through here too;
+ * what it saves in bulk is dropped instead,
+ * so what we hold is never behind.
+ *
+ * <p>
+ * If Redis gives us trouble we leave it be
+ * for a few seconds; lookups go straight to
+ * Mongo in the meantime.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/29/2017 (2:30 PM)
+ */
+@Singleton
+public class SharedAccountCache
+{
+
+    /** replaces an account only if we're moving forward, drops the name it had if it was renamed, then (re)sets the expiry */
+    private static final byte[] PUT_SCRIPT = ("local v = redis.call('HGET', KEYS[1], 'v') "
+                                            + "if v and tonumber(v) >= tonumber(ARGV[1]) then return 0 end "
+                                            + "local n = redis.call('HGET', KEYS[1], 'n') "
+                                            + "if n and n ~= KEYS[2] and redis.call('GET', n) == ARGV[4] then redis.call('DEL', n) end "
+                                            + "redis.call('HMSET', KEYS[1], 'v', ARGV[1], 'd', ARGV[2], 'n', KEYS[2]) "
+                                            + "redis.call('EXPIRE', KEYS[1], ARGV[3]) "
+                                            + "redis.call('SETEX', KEYS[2], ARGV[3], ARGV[4]) "
+                                            + "return 1").getBytes(StandardCharsets.UTF_8);
+
+    /** the field in each hash holding the account */
+    private static final byte[] DATA_FIELD = "d".getBytes(StandardCharsets.UTF_8);
+
+    /** how long (in ms) we leave Redis be after it fails on us */
+    private static final long BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /** what we (de)serialize accounts with */
+    private static final AccountCodec CODEC = new AccountCodec();
+
+    /** where everything is */
+    private final RedisHandler redis;
+
+    /** how long (in seconds) accounts stick around */
+    private final int ttlSeconds;
+
+    /** how we're doing */
+    private final CacheTierStats stats = new CacheTierStats("shared");
+
+    /** until when (epoch ms) we're not using Redis */
+    private volatile long unavailableUntil;
+
+    @Inject
+    public SharedAccountCache(Database database, RedisHandler redis)
+    {
+        this.redis = redis;
+        this.ttlSeconds = database.config().sharedCacheTTLSeconds;
+
+        if (ttlSeconds > 0)
+            database.sharedCache(this);
+    }
+
+    /**
+     * @param uuid the UUID of an account
+     * @return the account, if we have it
+     */
+    public Optional<Account> get(UUID uuid)
+    {
+        return read(key(uuid));
+    }
+
+    /**
+     * @param username the username of an account; any case
+     * @return the account, if we have it
+     */
+    public Optional<Account> get(String username)
+    {
+        if (!available())
+            return Optional.empty();
+
+        try
+        {
+            final String _uuid = redis.accountResource(jedis -> jedis.get(nameKey(username)));
+
+            if (_uuid == null)
+            {
+                stats.record(false);
+                return Optional.empty();
+            }
+
+            // the name may have since moved on to someone else
+            final Optional<Account> _account = read(key(UUID.fromString(_uuid)));
+
+            return _account.filter(account -> account.username().equalsIgnoreCase(username));
+        }
+        catch (Exception ex)
+        {
+            failed(ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Grab many accounts in one round trip
+     *
+     * @param uuids the UUIDs of the accounts
+     * @return UUID -> account, for each one we have
+     */
+    public Map<UUID, Account> getAll(Collection<UUID> uuids)
+    {
+        final Map<UUID, Account> _found = Maps.newHashMap();
+
+        if (uuids.isEmpty() || !available())
+            return _found;
+
+        try
+        {
+            final Map<UUID, Response<byte[]>> _responses = redis.accountResource(jedis ->
+            {
+                final Pipeline _pipeline = jedis.pipelined();
+                final Map<UUID, Response<byte[]>> _pending = Maps.newHashMap();
+
+                for (UUID uuid : uuids)
+                    _pending.put(uuid, _pipeline.hget(bytes(key(uuid)), DATA_FIELD));
+
+                _pipeline.sync();
+
+                return _pending;
+            });
+
+            _responses.forEach((uuid, response) ->
+            {
+                final byte[] _data = response.get();
+
+                stats.record(_data != null);
+
+                if (_data != null)
+                    _found.put(uuid, CODEC.fromBytes(_data));
+            });
+        }
+        catch (Exception ex)
+        {
+            failed(ex);
+        }
+
+        return _found;
+    }
+
+    /**
+     * @param account an account to hold onto (or update)
+     */
+    public void put(Account account)
+    {
+        putAll(Lists.newArrayList(account));
+    }
+
+    /**
+     * Hold onto (or update) the provided
+     * accounts; all in one round trip.
+     *
+     * @param accounts the accounts
+     */
+    public void putAll(Collection<Account> accounts)
+    {
+        if (accounts.isEmpty() || !available())
+            return;
+
+        try
+        {
+            redis.accountResource(jedis ->
+            {
+                final Pipeline _pipeline = jedis.pipelined();
+
+                for (Account account : accounts)
+                {
+                    _pipeline.eval(PUT_SCRIPT,
+                                   Lists.newArrayList(bytes(key(account.uuid())), bytes(nameKey(account.username()))),
+                                   Lists.newArrayList(bytes(Long.toString(account.version())),
+                                                      CODEC.toBytes(account),
+                                                      bytes(Integer.toString(ttlSeconds)),
+                                                      bytes(account.uuid().toString())));
+                }
+
+                _pipeline.sync();
+
+                return null;
+            });
+        }
+        catch (Exception ex)
+        {
+            failed(ex);
+        }
+    }
+
+    /**
+     * Drop the provided accounts; they'll
+     * be loaded from Mongo next time.
+     *
+     * @param accounts the accounts
+     */
+    public void invalidateAll(Collection<Account> accounts)
+    {
+        if (accounts.isEmpty() || !available())
+            return;
+
+        try
+        {
+            redis.accountResource(jedis -> jedis.del(accounts.stream().map(account -> key(account.uuid())).toArray(String[]::new)));
+        }
+        catch (Exception ex)
+        {
+            failed(ex);
+        }
+    }
+
+    /**
+     * @return how this tier is doing
+     */
+    public CacheTierStats stats()
+    {
+        return stats;
+    }
+
+    /**
+     * @param key the key of an account
+     * @return the account, if we have it
+     */
+    private Optional<Account> read(String key)
+    {
+        if (!available())
+            return Optional.empty();
+
+        try
+        {
+            final byte[] _data = redis.accountResource(jedis -> jedis.hget(bytes(key), DATA_FIELD));
+
+            stats.record(_data != null);
+
+            return _data == null ? Optional.empty() : Optional.of(CODEC.fromBytes(_data));
+        }
+        catch (Exception ex)
+        {
+            failed(ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return whether we should be using Redis right now
+     */
+    private boolean available()
+    {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    /**
+     * Something went wrong; leave Redis be for a bit
+     *
+     * @param ex what went wrong
+     */
+    private void failed(Exception ex)
+    {
+        stats.recordError();
+        unavailableUntil = System.currentTimeMillis() + BACKOFF_MILLIS;
+
+        System.err.println("Shared account cache is unavailable; using Mongo for a few seconds (" + ex.getMessage() + ")");
+    }
+
+    /**
+     * @param uuid a player's UUID
+     * @return the key their account is under
+     */
+    private static String key(UUID uuid)
+    {
+        return "hyleria-account." + uuid;
+    }
+
+    /**
+     * @param username a player's username
+     * @return the key their UUID is under
+     */
+    private static String nameKey(String username)
+    {
+        return "hyleria-account-name." + username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param text some text
+     * @return that text as UTF-8
+     */
+    private static byte[] bytes(String text)
+    {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
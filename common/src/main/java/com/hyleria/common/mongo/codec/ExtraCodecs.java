@@ -2,12 +2,16 @@ package com.hyleria.common.mongo.codec;
 
 import com.google.common.collect.Lists;
 import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountCodec;
 import com.hyleria.common.reference.Role;
+import com.mongodb.MongoClient;
 import org.bson.BsonReader;
 import org.bson.BsonWriter;
 import org.bson.codecs.Codec;
 import org.bson.codecs.DecoderContext;
 import org.bson.codecs.EncoderContext;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 import java.util.List;
 import java.util.UUID;
@@ -20,8 +24,15 @@ import java.util.function.Function;
 public class ExtraCodecs
 {
 
+    /** UUIDs stored as strings */
+    public static final UUIDCodec UUID_CODEC = new UUIDCodec();
+
     /** all of the custom codecs we use */
-    public static final List<? extends Codec<?>> HYLERIA_CODECS = Lists.newArrayList(new RoleCodec(), new PreviousAddressCodec(), new UUIDCodec());
+    public static final List<? extends Codec<?>> HYLERIA_CODECS = Lists.newArrayList(new RoleCodec(), new PreviousAddressCodec(), UUID_CODEC, new AccountCodec());
+
+    /** the driver's codecs, then ours */
+    public static final CodecRegistry HYLERIA_REGISTRY = CodecRegistries.fromRegistries(MongoClient.getDefaultCodecRegistry(),
+                                                                                        CodecRegistries.fromCodecs(HYLERIA_CODECS));
 
     /** the fresh UUID */
     public static Function<String, UUID> UNDASHED_UUID_PARSER = val -> new UUID(Long.parseUnsignedLong(val.substring(0, 16), 16),
@@ -56,7 +67,7 @@ public class ExtraCodecs
      *
      * BSON has one of these included?
      */
-    static class UUIDCodec implements Codec<UUID>
+    public static class UUIDCodec implements Codec<UUID>
     {
         @Override
         public UUID decode(BsonReader reader, DecoderContext context)
@@ -84,7 +95,7 @@ public class ExtraCodecs
     /**
      * {@link com.hyleria.common.account.Account.PreviousAddress} <-> {@link org.bson.Document}
      */
-    static class PreviousAddressCodec implements Codec<Account.PreviousAddress>
+    public static class PreviousAddressCodec implements Codec<Account.PreviousAddress>
     {
         @Override
         public Account.PreviousAddress decode(BsonReader reader, DecoderContext decoderContext)
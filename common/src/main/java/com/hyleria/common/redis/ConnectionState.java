@@ -0,0 +1,28 @@
+package com.hyleria.common.redis;
+
+/**
+ * The state of the connection our
+ * {@link RedisHandler} receives payloads on.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/19/2017 (1:58 PM)
+ */
+public enum ConnectionState
+{
+
+    /** we haven't started listening yet */
+    DISCONNECTED,
+
+    /** making our first connection */
+    CONNECTING,
+
+    /** connected & listening */
+    CONNECTED,
+
+    /** the connection dropped; trying to get it back */
+    RECONNECTING,
+
+    /** we've been shut down for good */
+    CLOSED
+
+}
@@ -0,0 +1,350 @@
+package com.hyleria.common.redis;
+
+import com.google.common.collect.Maps;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.StreamEntry;
+import redis.clients.jedis.StreamEntryID;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Reads {@link com.hyleria.common.redis.api.Durable}
+ * payloads out of their Redis Streams.
+ *
+ * <p>
+ * Each channel has a stream ({@code stream:<channel>}),
+ * and every server reading it has a consumer group of
+ * its own; so, like pub/sub, everyone sees everything.
+ * Unlike pub/sub, Redis remembers how far each group
+ * has gotten. Payloads are only acknowledged after their
+ * hooks have run, and when we start up we first go
+ * through everything we were handed but never finished.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/22/2017 (11:40 AM)
+ */
+class DurableStreams
+{
+
+    /** the field within each stream entry that holds the message */
+    static final String MESSAGE_FIELD = "message";
+
+    /** how long (in ms) a single read waits for something to show up */
+    private static final long BLOCK_MILLIS = 1000;
+
+    /** the most entries we'll take from a stream in one read */
+    private static final int READ_COUNT = 128;
+
+    /** where we get our connections from */
+    private final JedisPool pool;
+
+    /** our consumer group (as well as our name within it) */
+    private final String group;
+
+    /** handles every entry we read */
+    private final MessageTransport.Receiver handler;
+
+    /** the position we read each stream from | stream key -> ID */
+    private final Map<String, StreamEntryID> positions = new ConcurrentHashMap<>();
+
+    /** streams we still need to create our group on */
+    private final Set<String> uninitialized = ConcurrentHashMap.newKeySet();
+
+    /** entries we've finished w/, but haven't told Redis about yet */
+    private final Queue<Ack> acks = new ConcurrentLinkedQueue<>();
+
+    /** the thread doing our reads */
+    private Thread thread;
+
+    /** whether or not we should keep reading */
+    private volatile boolean running;
+
+    /**
+     * @param pool where we get our connections from
+     * @param group our consumer group; must stay the same
+     *              across restarts, so use the server's name
+     * @param handler handles every entry we read
+     */
+    DurableStreams(JedisPool pool, String group, MessageTransport.Receiver handler)
+    {
+        this.pool = pool;
+        this.group = group;
+        this.handler = handler;
+    }
+
+    /**
+     * @param channel a raw channel
+     * @return the key of the stream backing it
+     */
+    static String key(String channel)
+    {
+        return "stream:" + channel;
+    }
+
+    /**
+     * Start reading; does nothing if we already are
+     */
+    synchronized void start()
+    {
+        if (running)
+            return;
+
+        running = true;
+
+        thread = new Thread(this::run, "Hyleria Redis Streams");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop reading. Call {@link #flushAcks()}
+     * once whatever we've handed out is done.
+     */
+    synchronized void stop()
+    {
+        running = false;
+
+        if (thread != null)
+        {
+            try
+            {
+                thread.join(BLOCK_MILLIS * 2);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param channels the raw channels to start reading the streams of
+     */
+    void add(String... channels)
+    {
+        for (String channel : channels)
+        {
+            final String _key = key(channel);
+
+            // "0" means start w/ whatever we had pending
+            if (positions.putIfAbsent(_key, new StreamEntryID()) == null)
+                uninitialized.add(_key);
+        }
+    }
+
+    /**
+     * @param channels the raw channels to stop reading the streams of
+     */
+    void remove(String... channels)
+    {
+        for (String channel : channels)
+        {
+            positions.remove(key(channel));
+            uninitialized.remove(key(channel));
+        }
+    }
+
+    /**
+     * Let Redis know the provided entry
+     * has been handled. Sent along w/
+     * our next read.
+     *
+     * @param stream the stream's key
+     * @param id the entry
+     */
+    void ack(String stream, StreamEntryID id)
+    {
+        acks.add(new Ack(stream, id));
+    }
+
+    /**
+     * Send every acknowledgement we have waiting
+     */
+    void flushAcks()
+    {
+        if (acks.isEmpty())
+            return;
+
+        try (Jedis _jedis = pool.getResource())
+        {
+            flushAcks(_jedis);
+        }
+        catch (Exception ex)
+        {
+            // they'll be replayed next time around; that's fine
+            System.err.println("Failed to acknowledge Redis stream entries: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * @param jedis the connection to send them over
+     */
+    private void flushAcks(Jedis jedis)
+    {
+        if (acks.isEmpty())
+            return;
+
+        final Pipeline _pipeline = jedis.pipelined();
+        Ack _ack;
+
+        while ((_ack = acks.poll()) != null)
+            _pipeline.xack(_ack.stream, group, _ack.id);
+
+        _pipeline.sync();
+    }
+
+    /**
+     * What our reading thread runs
+     */
+    @SuppressWarnings ( "unchecked" )
+    private void run()
+    {
+        int _failures = 0;
+
+        while (running)
+        {
+            try (Jedis _jedis = pool.getResource())
+            {
+                while (running)
+                {
+                    createGroups(_jedis);
+                    flushAcks(_jedis);
+
+                    if (positions.isEmpty())
+                    {
+                        Thread.sleep(BLOCK_MILLIS);
+                        continue;
+                    }
+
+                    final Map.Entry<String, StreamEntryID>[] _streams = positions.entrySet().stream()
+                            .map(entry -> Maps.immutableEntry(entry.getKey(), entry.getValue()))
+                            .toArray(Map.Entry[]::new);
+
+                    final List<Map.Entry<String, List<StreamEntry>>> _read = _jedis.xreadGroup(group, group, READ_COUNT, BLOCK_MILLIS, false, _streams);
+
+                    // streams we were replaying that came back empty are caught up
+                    for (Map.Entry<String, StreamEntryID> stream : _streams)
+                        if (!StreamEntryID.UNRECEIVED_ENTRY.equals(stream.getValue()) && !contains(_read, stream.getKey()))
+                            positions.replace(stream.getKey(), StreamEntryID.UNRECEIVED_ENTRY);
+
+                    if (_read != null)
+                        for (Map.Entry<String, List<StreamEntry>> stream : _read)
+                            handle(stream.getKey(), stream.getValue());
+
+                    _failures = 0;
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                break;
+            }
+            catch (Exception ex)
+            {
+                if (!running)
+                    break;
+
+                System.err.println("Issue reading from our Redis streams: " + ex.getMessage());
+
+                try
+                {
+                    Thread.sleep(SubscriptionManager.backoff(_failures++));
+                }
+                catch (InterruptedException interrupted)
+                {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param stream the key of the stream
+     * @param entries what we read from it
+     */
+    private void handle(String stream, List<StreamEntry> entries)
+    {
+        if (entries == null || entries.isEmpty())
+            return;
+
+        final StreamEntryID _position = positions.get(stream);
+
+        for (StreamEntry entry : entries)
+        {
+            final String _message = entry.getFields().get(MESSAGE_FIELD);
+            final StreamEntryID _id = entry.getID();
+
+            if (_message == null)
+                ack(stream, _id);
+            else
+                handler.receive(stream.substring("stream:".length()), _message, _id.getTime(), () -> ack(stream, _id));
+        }
+
+        // while replaying we move along by ID; otherwise ">" takes care of it
+        if (_position != null && !StreamEntryID.UNRECEIVED_ENTRY.equals(_position))
+            positions.replace(stream, entries.get(entries.size() - 1).getID());
+    }
+
+    /**
+     * Make sure our group exists on every new stream
+     *
+     * @param jedis the connection to use
+     */
+    private void createGroups(Jedis jedis)
+    {
+        for (String stream : uninitialized)
+        {
+            try
+            {
+                // new groups only see what's sent from here on out
+                jedis.xgroupCreate(stream, group, StreamEntryID.LAST_ENTRY, true);
+            }
+            catch (JedisDataException ex)
+            {
+                // BUSYGROUP; we've been here before
+                if (!ex.getMessage().startsWith("BUSYGROUP"))
+                    throw ex;
+            }
+
+            uninitialized.remove(stream);
+        }
+    }
+
+    /**
+     * @param read the result of a read
+     * @param stream a stream's key
+     * @return whether the read returned anything for that stream
+     */
+    private static boolean contains(List<Map.Entry<String, List<StreamEntry>>> read, String stream)
+    {
+        if (read != null)
+            for (Map.Entry<String, List<StreamEntry>> entry : read)
+                if (entry.getKey().equals(stream) && entry.getValue() != null && !entry.getValue().isEmpty())
+                    return true;
+
+        return false;
+    }
+
+    /**
+     * An entry waiting to be acknowledged
+     */
+    private static class Ack
+    {
+        final String stream;
+        final StreamEntryID id;
+
+        Ack(String stream, StreamEntryID id)
+        {
+            this.stream = stream;
+            this.id = id;
+        }
+    }
+
+}
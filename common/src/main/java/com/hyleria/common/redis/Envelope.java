@@ -0,0 +1,206 @@
+package com.hyleria.common.redis;
+
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.codec.PayloadCodecs;
+import org.json.simple.JSONObject;
+
+/**
+ * What actually travels over Redis: a
+ * {@link Payload} along w/ the data we
+ * need to route and process it.
+ *
+ * <pre>
+ * {"focus":"...","id":"...","correlation":"...","reply_to":"...","payload":{...}}
+ * </pre>
+ *
+ * The {@code focus} is always written first
+ * so that {@link PayloadDecoder} can figure
+ * out the type of the payload before reading it.
+ *
+ * <p>
+ * Large payloads may be compressed; in which case
+ * an {@code "encoding"} is written ahead of the
+ * payload, and the payload itself is a string.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/17/2017 (7:48 PM)
+ */
+public class Envelope
+{
+
+    /** what this is about; see {@link com.hyleria.common.redis.api.Focus} */
+    public final String focus;
+
+    /** the content; {@code null} if none was sent */
+    public final Payload payload;
+
+    /** unique to this message (or whatever it's a retry of); used to drop duplicates */
+    private String id;
+
+    /** ties a reply back to the request it is for */
+    private String correlation;
+
+    /** when this is a request, the channel replies should be sent to */
+    private String replyTo;
+
+    /** payloads longer than this (in chars) are compressed; 0 to never */
+    private int compressAbove;
+
+    /** how many chars compressing the payload saved us when last written */
+    private int saved;
+
+    /**
+     * @param focus the focus
+     * @param payload the payload
+     */
+    public Envelope(String focus, Payload payload)
+    {
+        this.focus = focus;
+        this.payload = payload;
+    }
+
+    /**
+     * @param id the ID of this message; {@code null} for none
+     * @return this envelope
+     */
+    public Envelope identify(String id)
+    {
+        this.id = id;
+
+        return this;
+    }
+
+    /**
+     * @return the ID of this message, or {@code null}
+     *         if the sender didn't provide one
+     */
+    public String id()
+    {
+        return id;
+    }
+
+    /**
+     * @param correlation the ID tying a request & its replies together
+     * @param replyTo where replies go; {@code null} for replies themselves
+     * @return this envelope
+     */
+    public Envelope correlate(String correlation, String replyTo)
+    {
+        this.correlation = correlation;
+        this.replyTo = replyTo;
+
+        return this;
+    }
+
+    /**
+     * @return the correlation ID, or {@code null}
+     *         if this isn't part of a request
+     */
+    public String correlation()
+    {
+        return correlation;
+    }
+
+    /**
+     * @return where we should reply to, or {@code null}
+     *         if no reply is expected
+     */
+    public String replyTo()
+    {
+        return replyTo;
+    }
+
+    /**
+     * @param threshold compress the payload if its JSON is longer
+     *                  than this (in chars); 0 to never compress it
+     * @return this envelope
+     */
+    public Envelope compressAbove(int threshold)
+    {
+        this.compressAbove = threshold;
+
+        return this;
+    }
+
+    /**
+     * @return how many chars compression saved the
+     *         last time we were written; 0 if we weren't
+     *         compressed
+     */
+    public int bytesSaved()
+    {
+        return saved;
+    }
+
+    /**
+     * @return whether or not the sender is waiting on a reply
+     */
+    public boolean expectsReply()
+    {
+        return correlation != null && replyTo != null;
+    }
+
+    /**
+     * @return this envelope as a JSON string
+     */
+    public String asString()
+    {
+        final StringBuilder _builder = new StringBuilder("{\"focus\":\"").append(JSONObject.escape(focus)).append('"');
+
+        if (id != null)
+            _builder.append(",\"id\":\"").append(JSONObject.escape(id)).append('"');
+
+        if (correlation != null)
+            _builder.append(",\"correlation\":\"").append(JSONObject.escape(correlation)).append('"');
+
+        if (replyTo != null)
+            _builder.append(",\"reply_to\":\"").append(JSONObject.escape(replyTo)).append('"');
+
+        saved = 0;
+
+        if (payload != null)
+        {
+            final int _mark = _builder.length();
+
+            // nothing to write? drop the key again
+            if (!PayloadCodecs.write(payload, _builder.append(",\"payload\":")))
+                _builder.setLength(_mark);
+            else if (compressAbove > 0 && _builder.length() - _mark > compressAbove)
+                compress(_builder, _mark);
+        }
+
+        return _builder.append('}').toString();
+    }
+
+    /**
+     * Swap the payload we just wrote out for
+     * a compressed version; if it's smaller.
+     *
+     * @param builder what we're writing to
+     * @param mark where the payload's key starts
+     */
+    private void compress(StringBuilder builder, int mark)
+    {
+        final int _start = mark + ",\"payload\":".length();
+        final String _compressed = PayloadCompression.compress(builder.substring(_start));
+
+        // quotes + the encoding flag
+        final int _cost = _compressed.length() + 2 + ",\"encoding\":\"\"".length() + PayloadCompression.DEFLATE.length();
+
+        if (_cost >= builder.length() - _start)
+            return;
+
+        saved = builder.length() - _start - _cost;
+
+        builder.setLength(mark);
+        builder.append(",\"encoding\":\"").append(PayloadCompression.DEFLATE).append('"')
+               .append(",\"payload\":\"").append(_compressed).append('"');
+    }
+
+    @Override
+    public String toString()
+    {
+        return asString();
+    }
+
+}
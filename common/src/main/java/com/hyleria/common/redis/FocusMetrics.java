@@ -0,0 +1,155 @@
+package com.hyleria.common.redis;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How the payloads for a single focus are
+ * doing on their way through our hooks. Lets
+ * us see which payloads are backing up, and
+ * which hooks are slow. Also tracks how much
+ * compression saves on the ones we send.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/18/2017 (4:05 PM)
+ */
+public class FocusMetrics
+{
+
+    /** the focus this is for */
+    public final String focus;
+
+    /** payloads sitting in a lane right now */
+    final AtomicLong queued = new AtomicLong();
+
+    /** payloads thrown out because their lane was full */
+    final AtomicLong dropped = new AtomicLong();
+
+    /** total time (in ns) payloads spent waiting in a lane */
+    final AtomicLong waitNanos = new AtomicLong();
+
+    /** how many times a hook was run */
+    final AtomicLong invocations = new AtomicLong();
+
+    /** total time (in ns) spent running hooks */
+    final AtomicLong hookNanos = new AtomicLong();
+
+    /** the longest (in ns) a single hook has taken */
+    final AtomicLong maxHookNanos = new AtomicLong();
+
+    /** how many payloads we've sent compressed */
+    final AtomicLong compressed = new AtomicLong();
+
+    /** how many bytes compressing those saved */
+    final AtomicLong bytesSaved = new AtomicLong();
+
+    /**
+     * @param focus the focus
+     */
+    FocusMetrics(String focus)
+    {
+        this.focus = focus;
+    }
+
+    /**
+     * Record a hook being run
+     *
+     * @param nanos how long it took
+     */
+    void recordHook(long nanos)
+    {
+        invocations.incrementAndGet();
+        hookNanos.addAndGet(nanos);
+        maxHookNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Record a payload we sent compressed
+     *
+     * @param saved how many bytes that saved
+     */
+    void recordCompression(int saved)
+    {
+        compressed.incrementAndGet();
+        bytesSaved.addAndGet(saved);
+    }
+
+    /**
+     * @return how many payloads are waiting to be handled
+     */
+    public long queued()
+    {
+        return queued.get();
+    }
+
+    /**
+     * @return how many payloads we've dropped
+     */
+    public long dropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * @return how many times a hook was run
+     */
+    public long invocations()
+    {
+        return invocations.get();
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return the average time one hook took
+     */
+    public double averageHookTime(TimeUnit unit)
+    {
+        final long _invocations = invocations.get();
+
+        return _invocations == 0 ? 0 : (double) unit.convert(hookNanos.get(), TimeUnit.NANOSECONDS) / _invocations;
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return the longest any one hook has taken
+     */
+    public long maxHookTime(TimeUnit unit)
+    {
+        return unit.convert(maxHookNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return how many payloads we've sent compressed
+     */
+    public long compressed()
+    {
+        return compressed.get();
+    }
+
+    /**
+     * @return how many bytes we've kept off the wire by compressing
+     */
+    public long bytesSaved()
+    {
+        return bytesSaved.get();
+    }
+
+    /**
+     * @param unit the unit to return the time in
+     * @return total time payloads spent waiting to be handled
+     */
+    public long totalWaitTime(TimeUnit unit)
+    {
+        return unit.convert(waitNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString()
+    {
+        return focus + " [queued=" + queued() + ", dropped=" + dropped() + ", invocations=" + invocations()
+                + ", avg=" + String.format("%.3f", averageHookTime(TimeUnit.MICROSECONDS) / 1000D) + "ms"
+                + ", max=" + maxHookTime(TimeUnit.MILLISECONDS) + "ms"
+                + ", compressed=" + compressed() + ", saved=" + bytesSaved() + "B]";
+    }
+
+}
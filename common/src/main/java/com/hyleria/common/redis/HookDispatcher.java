@@ -0,0 +1,236 @@
+package com.hyleria.common.redis;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs our hooks off of the subscriber thread.
+ *
+ * <p>
+ * We have a fixed set of "lanes"; each one being
+ * a single thread w/ a bounded queue in front of it.
+ * Every focus is pinned to exactly one lane, so the
+ * payloads for a focus are handled in the order we
+ * received them, while a slow hook only holds up
+ * the foci that happen to share its lane.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/18/2017 (3:40 PM)
+ */
+class HookDispatcher
+{
+
+    /** how long lanes wait on an empty queue before re-checking whether we're still running */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /** our settings */
+    private final RedisConfig config;
+
+    /** what's waiting to be run | one queue per lane */
+    private final BlockingQueue<Runnable>[] lanes;
+
+    /** the threads working through {@link #lanes} */
+    private final Thread[] workers;
+
+    /** how everything is performing | focus -> metrics */
+    private final ConcurrentHashMap<String, FocusMetrics> metrics = new ConcurrentHashMap<>();
+
+    /** tasks we've thrown out due to a full lane */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** whether or not we're accepting work */
+    private volatile boolean running = true;
+
+    /**
+     * @param config our settings
+     */
+    @SuppressWarnings ( "unchecked" )
+    HookDispatcher(RedisConfig config)
+    {
+        this.config = config;
+        this.lanes = new BlockingQueue[Math.max(1, config.dispatchThreads)];
+        this.workers = new Thread[lanes.length];
+
+        for (int i = 0; i < lanes.length; i++)
+        {
+            final BlockingQueue<Runnable> _lane = lanes[i] = new ArrayBlockingQueue<>(Math.max(1, config.dispatchQueueCapacity));
+
+            workers[i] = new Thread(() -> work(_lane), "Hyleria Redis Dispatch #" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Queue up the provided task on the
+     * lane the provided focus belongs to.
+     *
+     * <p>
+     * When that lane is full we'll hold up the
+     * caller (the subscriber thread) for a bit;
+     * that backs things up into Redis instead of
+     * letting our memory usage grow without bound.
+     *
+     * @param focus the focus the task is for
+     * @param task what to run
+     * @return whether or not we accepted it
+     */
+    boolean dispatch(String focus, Runnable task)
+    {
+        if (!running)
+            return false;
+
+        final FocusMetrics _metrics = metrics(focus);
+        final long _queuedAt = System.nanoTime();
+
+        final Runnable _tracked = () ->
+        {
+            _metrics.queued.decrementAndGet();
+            _metrics.waitNanos.addAndGet(System.nanoTime() - _queuedAt);
+
+            task.run();
+        };
+
+        _metrics.queued.incrementAndGet();
+
+        boolean _accepted;
+
+        try
+        {
+            _accepted = laneFor(focus).offer(_tracked, config.dispatchBlockTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        catch (InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            _accepted = false;
+        }
+
+        if (!_accepted)
+        {
+            _metrics.queued.decrementAndGet();
+            _metrics.dropped.incrementAndGet();
+            dropped.incrementAndGet();
+        }
+
+        return _accepted;
+    }
+
+    /**
+     * Stop accepting work, and give our
+     * lanes some time to finish up.
+     *
+     * @param timeoutMillis how long we'll wait for that
+     */
+    void shutdown(long timeoutMillis)
+    {
+        running = false;
+
+        final long _deadline = System.currentTimeMillis() + timeoutMillis;
+
+        for (Thread worker : workers)
+        {
+            try
+            {
+                worker.join(Math.max(1, _deadline - System.currentTimeMillis()));
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        for (Thread worker : workers)
+            worker.interrupt();
+    }
+
+    /**
+     * @param focus the focus
+     * @return the metrics for it; created if needed
+     */
+    FocusMetrics metrics(String focus)
+    {
+        return metrics.computeIfAbsent(focus, FocusMetrics::new);
+    }
+
+    /**
+     * @return every focus we have metrics for
+     */
+    ConcurrentHashMap<String, FocusMetrics> allMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * @return how many tasks are waiting in each lane
+     */
+    int[] depths()
+    {
+        final int[] _depths = new int[lanes.length];
+
+        for (int i = 0; i < lanes.length; i++)
+            _depths[i] = lanes[i].size();
+
+        return _depths;
+    }
+
+    /**
+     * @return how many tasks we've dropped so far
+     */
+    long dropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * @param focus the focus
+     * @return the lane that focus is pinned to
+     */
+    private BlockingQueue<Runnable> laneFor(String focus)
+    {
+        return lanes[(focus.hashCode() & Integer.MAX_VALUE) % lanes.length];
+    }
+
+    /**
+     * What each of our lane threads runs
+     *
+     * @param lane the lane
+     */
+    private void work(BlockingQueue<Runnable> lane)
+    {
+        while (running || !lane.isEmpty())
+        {
+            final Runnable _task;
+
+            try
+            {
+                _task = lane.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex)
+            {
+                if (running)
+                    continue;
+
+                return;
+            }
+
+            if (_task == null)
+                continue;
+
+            try
+            {
+                _task.run();
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+                System.err.println("Issue occurred whilst dispatching a Redis payload");
+                System.err.println();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,311 @@
+package com.hyleria.common.redis;
+
+import com.hyleria.common.redis.api.Priority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link MessageTransport} that never leaves the
+ * JVM. Every handler sharing a {@link Network} sees
+ * what the others publish, as though they were
+ * separate servers talking through Redis.
+ *
+ * <p>
+ * Messages are handed straight to each receiver on
+ * the publishing thread; there are no locks, copies,
+ * or sockets along the way. That makes this ideal for
+ * benchmarking everything above the transport, and
+ * for running a handful of "servers" within one test.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/26/2017 (11:40 AM)
+ */
+public class InMemoryTransport implements MessageTransport
+{
+
+    /** acknowledging does nothing; nothing here survives a restart anyways */
+    private static final Runnable NO_ACK = () -> { };
+
+    /** who we're talking to */
+    private final Network network;
+
+    /** the raw channels we're subscribed to */
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+    /** the patterns we're subscribed to | glob -> compiled */
+    private final ConcurrentHashMap<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+    /** handles everything we receive */
+    private volatile Receiver receiver;
+
+    /** whether we receive durable messages */
+    private volatile boolean durable;
+
+    /** what we're up to */
+    private volatile ConnectionState state = ConnectionState.DISCONNECTED;
+
+    /** when we started up */
+    private volatile long connectedAt;
+
+    /**
+     * @param network the network to join
+     */
+    public InMemoryTransport(Network network)
+    {
+        this.network = network;
+    }
+
+    @Override
+    public void start(Receiver receiver, String bootstrap)
+    {
+        this.receiver = receiver;
+        this.connectedAt = System.currentTimeMillis();
+        this.state = ConnectionState.CONNECTED;
+
+        subscribe(bootstrap);
+    }
+
+    @Override
+    public void subscribe(String... add)
+    {
+        for (String channel : add)
+            if (channels.add(channel))
+                network.subscribers(channel).add(this);
+    }
+
+    @Override
+    public void unsubscribe(String... remove)
+    {
+        for (String channel : remove)
+            if (channels.remove(channel))
+                network.subscribers(channel).remove(this);
+    }
+
+    @Override
+    public void subscribePattern(String... add)
+    {
+        for (String pattern : add)
+            patterns.computeIfAbsent(pattern, InMemoryTransport::compile);
+
+        network.patternSubscribers.add(this);
+    }
+
+    @Override
+    public void unsubscribePattern(String... remove)
+    {
+        for (String pattern : remove)
+            patterns.remove(pattern);
+
+        if (patterns.isEmpty())
+            network.patternSubscribers.remove(this);
+    }
+
+    @Override
+    public void durable(String consumerGroup, String... channels)
+    {
+        durable = true;
+    }
+
+    @Override
+    public void publish(Priority priority, List<Message> batch)
+    {
+        for (Message message : batch)
+            network.deliver(message);
+    }
+
+    @Override
+    public ConnectionState state()
+    {
+        return state;
+    }
+
+    @Override
+    public long reconnects()
+    {
+        return 0;
+    }
+
+    @Override
+    public long connectedAt()
+    {
+        return connectedAt;
+    }
+
+    @Override
+    public int subscriptionCount()
+    {
+        return channels.size() + patterns.size();
+    }
+
+    @Override
+    public void stopReceiving()
+    {
+        state = ConnectionState.CLOSED;
+
+        unsubscribe(channels.toArray(new String[0]));
+        network.patternSubscribers.remove(this);
+        patterns.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        stopReceiving();
+    }
+
+    /**
+     * @param message something that was published
+     * @param pattern whether it reached us via a pattern
+     */
+    private void receive(Message message, boolean pattern)
+    {
+        final Receiver _receiver = receiver;
+
+        if (_receiver == null || state == ConnectionState.CLOSED)
+            return;
+
+        // like Redis, durable messages only reach those reading the streams
+        if (message.durable())
+        {
+            if (durable && !pattern)
+                _receiver.receive(message.channel, message.message, System.currentTimeMillis(), NO_ACK);
+        }
+        else
+            _receiver.receive(message.channel, message.message, 0, null);
+    }
+
+    /**
+     * @param channel a raw channel
+     * @return whether any of our patterns match it
+     */
+    private boolean matches(String channel)
+    {
+        for (Pattern pattern : patterns.values())
+            if (pattern.matcher(channel).matches())
+                return true;
+
+        return false;
+    }
+
+    /**
+     * Turn a Redis (glob-style) pattern into
+     * its regular expression equivalent
+     *
+     * @param glob the pattern
+     * @return the regular expression
+     */
+    static Pattern compile(String glob)
+    {
+        final StringBuilder _regex = new StringBuilder(glob.length() + 8);
+
+        for (int i = 0; i < glob.length(); i++)
+        {
+            final char _char = glob.charAt(i);
+
+            switch (_char)
+            {
+                case '*':
+                    _regex.append(".*");
+                    break;
+
+                case '?':
+                    _regex.append('.');
+                    break;
+
+                case '[':
+                case ']':
+                    _regex.append(_char);
+                    break;
+
+                case '\\':
+                    if (i + 1 < glob.length())
+                        _regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+
+                    break;
+
+                default:
+                    _regex.append(Pattern.quote(String.valueOf(_char)));
+            }
+        }
+
+        return Pattern.compile(_regex.toString(), Pattern.DOTALL);
+    }
+
+    /**
+     * Stands in for the Redis instance. Share
+     * one of these between every transport
+     * that should be able to talk.
+     */
+    public static class Network
+    {
+        /** who is subscribed to each channel | raw channel -> transports */
+        private final ConcurrentHashMap<String, Set<InMemoryTransport>> subscribers = new ConcurrentHashMap<>();
+
+        /** every transport that has at least one pattern */
+        private final Set<InMemoryTransport> patternSubscribers = ConcurrentHashMap.newKeySet();
+
+        /** how many messages have been published */
+        private final AtomicLong published = new AtomicLong();
+
+        /** how many times a message was handed to a transport */
+        private final AtomicLong delivered = new AtomicLong();
+
+        /**
+         * @param channel a raw channel
+         * @return everyone subscribed to it
+         */
+        private Set<InMemoryTransport> subscribers(String channel)
+        {
+            return subscribers.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet());
+        }
+
+        /**
+         * @param message a message to hand to everyone interested in it
+         */
+        private void deliver(Message message)
+        {
+            published.incrementAndGet();
+
+            final Set<InMemoryTransport> _direct = subscribers.get(message.channel);
+
+            if (_direct != null)
+            {
+                for (InMemoryTransport transport : _direct)
+                {
+                    transport.receive(message, false);
+                    delivered.incrementAndGet();
+                }
+            }
+
+            for (InMemoryTransport transport : patternSubscribers)
+            {
+                if (transport.matches(message.channel))
+                {
+                    transport.receive(message, true);
+                    delivered.incrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * @return how many messages have been published
+         */
+        public long published()
+        {
+            return published.get();
+        }
+
+        /**
+         * @return how many times a message was handed to a transport
+         */
+        public long delivered()
+        {
+            return delivered.get();
+        }
+    }
+
+}
@@ -0,0 +1,253 @@
+package com.hyleria.common.redis;
+
+import com.hyleria.common.redis.api.Priority;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.StreamEntryID;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Our {@link MessageTransport} backed by an actual
+ * Redis instance. Regular messages go over pub/sub;
+ * durable ones are added to a Redis Stream.
+ *
+ * <p>
+ * Each {@link Priority} publishes over its own
+ * pool of connections, so bulk traffic never
+ * holds up control traffic.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/26/2017 (11:05 AM)
+ */
+public class JedisTransport implements MessageTransport
+{
+
+    /** general purpose connections; borrowed through {@link #resource(Function)} */
+    private final JedisPool pool;
+
+    /** connections held for as long as we're running; our subscriber & our stream reader */
+    private final JedisPool listenerPool;
+
+    /** connections for caching & handing off accounts; kept apart so logins never wait on everything else */
+    private final JedisPool accountPool;
+
+    /** the connections each class of payloads is written over */
+    private final EnumMap<Priority, JedisPool> publishPools = new EnumMap<>(Priority.class);
+
+    /** our one connection dedicated to the thread-blocking op of "subbing" to channels */
+    private SubscriptionManager subscriptions;
+
+    /** reads our durable messages; {@code null} unless {@link #durable(String, String...)} was called */
+    private volatile DurableStreams streams;
+
+    /** handles everything we receive */
+    private Receiver receiver;
+
+    /**
+     * @param config our settings
+     */
+    public JedisTransport(RedisConfig config)
+    {
+        final JedisPoolConfig _generalConfig = new JedisPoolConfig();
+
+        _generalConfig.setMaxTotal(config.poolSize);
+        _generalConfig.setMaxIdle(config.poolSize);
+
+        this.pool = new JedisPool(_generalConfig, config.host, config.port);
+
+        final JedisPoolConfig _listenerConfig = new JedisPoolConfig();
+
+        // the subscriber, the stream reader, and one to acknowledge w/ on the way out
+        _listenerConfig.setMaxTotal(3);
+        _listenerConfig.setMaxIdle(3);
+
+        this.listenerPool = new JedisPool(_listenerConfig, config.host, config.port);
+
+        final JedisPoolConfig _accountConfig = new JedisPoolConfig();
+
+        _accountConfig.setMaxTotal(config.accountPoolSize);
+        _accountConfig.setMaxIdle(config.accountPoolSize);
+
+        // better to fall back to Mongo than to hold up a login
+        _accountConfig.setMaxWaitMillis(config.accountPoolWaitMillis);
+
+        this.accountPool = new JedisPool(_accountConfig, config.host, config.port);
+
+        for (Priority priority : Priority.values())
+        {
+            final int _writers = Math.max(1, config.writerThreads(priority));
+            final JedisPoolConfig _poolConfig = new JedisPoolConfig();
+
+            // a connection for each writer, and one to spare
+            _poolConfig.setMaxTotal(_writers + 1);
+            _poolConfig.setMaxIdle(_writers + 1);
+
+            publishPools.put(priority, new JedisPool(_poolConfig, config.host, config.port));
+        }
+    }
+
+    @Override
+    public void start(Receiver receiver, String bootstrap)
+    {
+        this.receiver = receiver;
+        this.subscriptions = new SubscriptionManager(listenerPool, (channel, message) -> receiver.receive(channel, message, 0, null), bootstrap);
+    }
+
+    @Override
+    public void subscribe(String... channels)
+    {
+        subscriptions.subscribe(channels);
+        subscriptions.start();
+
+        if (streams != null)
+            streams.add(channels);
+    }
+
+    @Override
+    public void unsubscribe(String... channels)
+    {
+        subscriptions.unsubscribe(channels);
+
+        if (streams != null)
+            streams.remove(channels);
+    }
+
+    @Override
+    public void subscribePattern(String... patterns)
+    {
+        subscriptions.psubscribe(patterns);
+        subscriptions.start();
+    }
+
+    @Override
+    public void unsubscribePattern(String... patterns)
+    {
+        subscriptions.punsubscribe(patterns);
+    }
+
+    @Override
+    public synchronized void durable(String consumerGroup, String... channels)
+    {
+        checkState(streams == null, "Durable payloads have already been set up");
+
+        streams = new DurableStreams(listenerPool, consumerGroup, receiver);
+        streams.add(channels);
+        streams.start();
+    }
+
+    @Override
+    public void publish(Priority priority, List<Message> batch)
+    {
+        try (Jedis _jedis = publishPools.get(priority).getResource())
+        {
+            final Pipeline _pipeline = _jedis.pipelined();
+
+            for (Message message : batch)
+            {
+                if (message.durable())
+                    _pipeline.xadd(DurableStreams.key(message.channel), StreamEntryID.NEW_ENTRY,
+                                   Collections.singletonMap(DurableStreams.MESSAGE_FIELD, message.message),
+                                   message.streamLength, true);
+                else
+                    _pipeline.publish(message.channel, message.message);
+            }
+
+            _pipeline.sync();
+        }
+    }
+
+    @Override
+    public ConnectionState state()
+    {
+        return subscriptions == null ? ConnectionState.DISCONNECTED : subscriptions.state();
+    }
+
+    @Override
+    public long reconnects()
+    {
+        return subscriptions.reconnects();
+    }
+
+    @Override
+    public long connectedAt()
+    {
+        return subscriptions.connectedAt();
+    }
+
+    @Override
+    public int subscriptionCount()
+    {
+        return subscriptions.channelCount() + subscriptions.patternCount();
+    }
+
+    @Override
+    public void stopReceiving()
+    {
+        subscriptions.shutdown();
+
+        if (streams != null)
+            streams.stop();
+    }
+
+    @Override
+    public void close()
+    {
+        // let Redis know what we finished
+        if (streams != null)
+            streams.flushAcks();
+
+        publishPools.values().forEach(JedisPool::close);
+        listenerPool.close();
+        accountPool.close();
+        pool.close();
+    }
+
+    /**
+     * Borrow a connection from our pool for
+     * the duration of the provided action.
+     *
+     * @param action what to do with it
+     * @param <T> the type of result
+     * @return whatever the action returned
+     */
+    public <T> T resource(Function<Jedis, T> action)
+    {
+        return borrow(pool, action);
+    }
+
+    /**
+     * Borrow a connection set aside for accounts.
+     * Throws if one doesn't free up in time.
+     *
+     * @param action what to do with it
+     * @param <T> the type of result
+     * @return whatever the action returned
+     */
+    public <T> T accountResource(Function<Jedis, T> action)
+    {
+        return borrow(accountPool, action);
+    }
+
+    /**
+     * @param pool where to borrow from
+     * @param action what to do with the connection
+     * @param <T> the type of result
+     * @return whatever the action returned
+     */
+    private static <T> T borrow(JedisPool pool, Function<Jedis, T> action)
+    {
+        try (Jedis _jedis = pool.getResource())
+        {
+            return action.apply(_jedis);
+        }
+    }
+
+}
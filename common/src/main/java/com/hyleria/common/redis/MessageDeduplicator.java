@@ -0,0 +1,136 @@
+package com.hyleria.common.redis;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the IDs of the messages we've
+ * received as of late, so that a payload
+ * showing up twice (a retry, a replay, etc.)
+ * is only acted on once.
+ *
+ * <p>
+ * IDs are kept in two generations that are
+ * swapped out every window; so an ID is
+ * remembered for at least one window, and
+ * at most two. Nothing is ever scanned; we
+ * just drop the older generation whole.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/24/2017 (10:15 AM)
+ */
+public class MessageDeduplicator
+{
+
+    /** how long (in ms) each generation lasts */
+    private final long windowMillis;
+
+    /** IDs seen during this window */
+    private volatile Set<String> current = ConcurrentHashMap.newKeySet();
+
+    /** IDs seen during the last window */
+    private volatile Set<String> previous = ConcurrentHashMap.newKeySet();
+
+    /** when {@link #current} was started */
+    private volatile long rotatedAt = System.currentTimeMillis();
+
+    /** how many IDs we've checked */
+    private final AtomicLong checked = new AtomicLong();
+
+    /** how many of those we had already seen */
+    private final AtomicLong duplicates = new AtomicLong();
+
+    /**
+     * @param window how long we remember IDs for; at minimum
+     * @param unit the unit of that window
+     */
+    public MessageDeduplicator(long window, TimeUnit unit)
+    {
+        this.windowMillis = unit.toMillis(window);
+    }
+
+    /**
+     * @param id the ID of a message we just received
+     * @return {@code true} if this is the first time we've
+     *         seen it; {@code false} if it's a duplicate
+     */
+    public boolean firstSeen(String id)
+    {
+        rotate();
+        checked.incrementAndGet();
+
+        // check the old generation first; it's only ever shrinking
+        if (previous.contains(id) || !current.add(id))
+        {
+            duplicates.incrementAndGet();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Start a new generation if this one has run its course
+     */
+    private void rotate()
+    {
+        final long _now = System.currentTimeMillis();
+
+        if (_now - rotatedAt < windowMillis)
+            return;
+
+        synchronized (this)
+        {
+            if (_now - rotatedAt < windowMillis)
+                return;
+
+            previous = current;
+            current = ConcurrentHashMap.newKeySet();
+            rotatedAt = _now;
+        }
+    }
+
+    /**
+     * @return how many IDs we're holding onto
+     */
+    public int size()
+    {
+        return current.size() + previous.size();
+    }
+
+    /**
+     * @return how many message IDs we've checked
+     */
+    public long checked()
+    {
+        return checked.get();
+    }
+
+    /**
+     * @return how many messages we've dropped as duplicates
+     */
+    public long duplicates()
+    {
+        return duplicates.get();
+    }
+
+    /**
+     * @return the portion (0 to 1) of messages that were duplicates
+     */
+    public double hitRate()
+    {
+        final long _checked = checked.get();
+
+        return _checked == 0 ? 0 : (double) duplicates.get() / _checked;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "dedup [checked=" + checked() + ", duplicates=" + duplicates()
+                + ", rate=" + String.format("%.4f", hitRate()) + ", size=" + size() + "]";
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.hyleria.common.redis;
+
+import com.hyleria.common.redis.api.Priority;
+
+import java.util.List;
+
+/**
+ * What actually moves messages between servers
+ * for our {@link RedisHandler}. Everything above
+ * this (envelopes, hooks, requests, dedup, etc.)
+ * is the same no matter which one is in use.
+ *
+ * <p>
+ * {@link JedisTransport} is what we run in production.
+ * {@link InMemoryTransport} keeps everything within
+ * the JVM; so benchmarks & tests may run a whole
+ * "network" of handlers w/o a Redis instance.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/26/2017 (10:40 AM)
+ */
+public interface MessageTransport
+{
+
+    /**
+     * Start things up. Nothing is received
+     * until something is subscribed to.
+     *
+     * @param receiver handles everything we receive
+     * @param bootstrap a channel we'll always be subscribed to
+     */
+    void start(Receiver receiver, String bootstrap);
+
+    /**
+     * @param channels the raw channels to start receiving from
+     */
+    void subscribe(String... channels);
+
+    /**
+     * @param channels the raw channels to stop receiving from
+     */
+    void unsubscribe(String... channels);
+
+    /**
+     * @param patterns the (glob-style) patterns to start receiving from
+     */
+    void subscribePattern(String... patterns);
+
+    /**
+     * @param patterns the patterns to stop receiving from
+     */
+    void unsubscribePattern(String... patterns);
+
+    /**
+     * Start receiving messages sent with a
+     * {@link Message#streamLength}, in a way
+     * that survives us restarting.
+     *
+     * @param consumerGroup who we are; stays the same across restarts
+     * @param channels the raw channels we're already subscribed to
+     */
+    void durable(String consumerGroup, String... channels);
+
+    /**
+     * Send out a batch of messages; in one
+     * round trip, if the transport can.
+     *
+     * @param priority the class of the messages
+     * @param batch the messages
+     */
+    void publish(Priority priority, List<Message> batch);
+
+    /**
+     * @return the state of the connection we receive on
+     */
+    ConnectionState state();
+
+    /**
+     * @return how many times we've had to reconnect
+     */
+    long reconnects();
+
+    /**
+     * @return when we last (re)connected; epoch ms, or {@code 0}
+     */
+    long connectedAt();
+
+    /**
+     * @return how many channels & patterns we're receiving from
+     */
+    int subscriptionCount();
+
+    /**
+     * Stop receiving messages. We may still
+     * publish until {@link #close()}.
+     */
+    void stopReceiving();
+
+    /**
+     * Let go of everything we're holding onto
+     */
+    void close();
+
+    /**
+     * Handles everything a transport receives
+     */
+    @FunctionalInterface
+    interface Receiver
+    {
+        /**
+         * @param channel the raw channel it was sent on
+         * @param message the raw message
+         * @param sentAt for durable messages; when it was sent (epoch ms)
+         * @param ack for durable messages; run once it has been handled.
+         *            {@code null} otherwise.
+         */
+        void receive(String channel, String message, long sentAt, Runnable ack);
+    }
+
+    /**
+     * A message on its way out
+     */
+    final class Message
+    {
+        /** the raw channel it's going out on */
+        public final String channel;
+
+        /** the message itself */
+        public final String message;
+
+        /** for durable messages; roughly how many to keep around. 0 otherwise */
+        public final long streamLength;
+
+        /**
+         * @param channel the raw channel
+         * @param message the message
+         * @param streamLength see {@link #streamLength}
+         */
+        public Message(String channel, String message, long streamLength)
+        {
+            this.channel = channel;
+            this.message = message;
+            this.streamLength = streamLength;
+        }
+
+        /**
+         * @return whether this must survive the receiver restarting
+         */
+        public boolean durable()
+        {
+            return streamLength > 0;
+        }
+    }
+
+}
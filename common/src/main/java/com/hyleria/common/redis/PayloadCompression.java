@@ -0,0 +1,90 @@
+package com.hyleria.common.redis;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Shrinks large payloads before they're sent.
+ * The payload's JSON is deflated, then Base64'd
+ * so it may still travel as a JSON string.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/25/2017 (11:20 AM)
+ */
+class PayloadCompression
+{
+
+    /** the {@code encoding} of payloads compressed w/ this */
+    static final String DEFLATE = "deflate";
+
+    /** what we compress & decompress through; reused as they aren't cheap to make */
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private PayloadCompression()
+    {
+    }
+
+    /**
+     * @param json a payload as JSON
+     * @return the compressed & encoded form of it
+     */
+    static String compress(String json)
+    {
+        final Deflater _deflater = DEFLATER.get();
+        final byte[] _buffer = new byte[4096];
+        final ByteArrayOutputStream _out = new ByteArrayOutputStream(json.length() / 2);
+
+        _deflater.reset();
+        _deflater.setInput(json.getBytes(StandardCharsets.UTF_8));
+        _deflater.finish();
+
+        while (!_deflater.finished())
+            _out.write(_buffer, 0, _deflater.deflate(_buffer));
+
+        return Base64.getEncoder().encodeToString(_out.toByteArray());
+    }
+
+    /**
+     * @param encoded something from {@link #compress(String)}
+     * @return the original JSON
+     * @throws IOException if it isn't valid
+     */
+    static String decompress(String encoded) throws IOException
+    {
+        final Inflater _inflater = INFLATER.get();
+        final byte[] _buffer = new byte[4096];
+
+        try
+        {
+            final byte[] _compressed = Base64.getDecoder().decode(encoded);
+            final ByteArrayOutputStream _out = new ByteArrayOutputStream(_compressed.length * 4);
+
+            _inflater.reset();
+            _inflater.setInput(_compressed);
+
+            while (!_inflater.finished())
+            {
+                final int _read = _inflater.inflate(_buffer);
+
+                // truncated; there's nothing more coming
+                if (_read == 0 && (_inflater.needsInput() || _inflater.needsDictionary()))
+                    throw new IOException("Compressed payload is incomplete");
+
+                _out.write(_buffer, 0, _read);
+            }
+
+            return new String(_out.toByteArray(), StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException | DataFormatException ex)
+        {
+            throw new IOException("Invalid compressed payload", ex);
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.hyleria.common.redis;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.codec.PayloadCodec;
+import com.hyleria.common.redis.codec.PayloadCodecs;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.function.Function;
+
+/**
+ * Turns the raw messages we receive over
+ * Redis into {@link Payload}s in one pass.
+ *
+ * <p>
+ * We read the {@code focus} first, figure
+ * out what type it is meant for, then bind
+ * the {@code payload} object straight into
+ * that type (via its generated codec when it has
+ * one). Nothing is parsed twice, and we skip right
+ * over messages nobody cares about.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/14/2017 (1:12 PM)
+ */
+public class PayloadDecoder
+{
+
+    /** used for the {@link JsonElement} fallback */
+    private static final JsonParser TREE_PARSER = new JsonParser();
+
+    /** JSON -> Java object */
+    private final Gson gson;
+
+    /**
+     * @param gson the instance backing this decoder
+     */
+    public PayloadDecoder(Gson gson)
+    {
+        this.gson = gson;
+    }
+
+    /**
+     * Decode the provided message.
+     *
+     * @param message the raw JSON message
+     * @param typeForFocus resolves the type of payload for
+     *                     the message's focus. return {@code null}
+     *                     when we aren't interested in that focus.
+     * @return the decoded envelope, or {@code null} if
+     *         nobody is interested in it
+     * @throws IOException if the message isn't valid JSON
+     */
+    public Envelope decode(String message, Function<String, Class<? extends Payload>> typeForFocus) throws IOException
+    {
+        try (JsonReader _reader = new JsonReader(new StringReader(message)))
+        {
+            String _focus = null;
+            String _id = null;
+            String _correlation = null;
+            String _replyTo = null;
+            String _encoding = null;
+            Class<? extends Payload> _type = null;
+
+            // only populated when the payload shows up before the focus
+            JsonElement _early = null;
+
+            // compressed payloads are a string; unpacked once we know everything else
+            String _compressed = null;
+            Payload _payload = null;
+
+            _reader.beginObject();
+
+            while (_reader.hasNext())
+            {
+                switch (_reader.nextName())
+                {
+                    case "focus":
+                        _focus = _reader.nextString();
+                        _type = typeForFocus.apply(_focus);
+
+                        // we're not interested; stop reading now
+                        if (_type == null)
+                            return null;
+
+                        break;
+
+                    case "id":
+                        _id = _reader.nextString();
+                        break;
+
+                    case "correlation":
+                        _correlation = _reader.nextString();
+                        break;
+
+                    case "reply_to":
+                        _replyTo = _reader.nextString();
+                        break;
+
+                    case "encoding":
+                        _encoding = _reader.nextString();
+                        break;
+
+                    case "payload":
+                        if (_reader.peek() == JsonToken.NULL)
+                            _reader.nextNull();
+                        else if (_reader.peek() == JsonToken.STRING)
+                            _compressed = _reader.nextString();
+                        else if (_type != null)
+                            _payload = read(_type, _reader);
+                        else
+                            _early = TREE_PARSER.parse(_reader);
+
+                        break;
+
+                    default:
+                        _reader.skipValue();
+                }
+            }
+
+            _reader.endObject();
+
+            if (_focus == null)
+                throw new IOException("Missing focus");
+
+            if (_early != null)
+                _payload = gson.fromJson(_early, _type);
+
+            if (_compressed != null)
+                _payload = inflate(_encoding, _compressed, _type);
+
+            return new Envelope(_focus, _payload).identify(_id).correlate(_correlation, _replyTo);
+        }
+        catch (IllegalStateException ex)
+        {
+            // Gson's way of telling us the structure is off
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * @param encoding how the payload was encoded
+     * @param payload the encoded payload
+     * @param type the type of payload
+     * @return the payload
+     * @throws IOException if it's invalid, or we
+     *                     don't know the encoding
+     */
+    private Payload inflate(String encoding, String payload, Class<? extends Payload> type) throws IOException
+    {
+        if (!PayloadCompression.DEFLATE.equals(encoding))
+            throw new IOException("Unknown payload encoding: " + encoding);
+
+        try (JsonReader _reader = new JsonReader(new StringReader(PayloadCompression.decompress(payload))))
+        {
+            return read(type, _reader);
+        }
+    }
+
+    /**
+     * Bind the payload object the reader is sitting
+     * on; w/ the generated codec if there is one.
+     *
+     * @param type the type of payload
+     * @param reader the reader
+     * @return the payload
+     * @throws IOException if the JSON is malformed
+     */
+    private Payload read(Class<? extends Payload> type, JsonReader reader) throws IOException
+    {
+        final PayloadCodec<? extends Payload> _codec = PayloadCodecs.forType(type);
+
+        return _codec != null ? _codec.read(reader) : gson.getAdapter(type).read(reader);
+    }
+
+}
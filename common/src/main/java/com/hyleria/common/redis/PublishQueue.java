@@ -0,0 +1,503 @@
+package com.hyleria.common.redis;
+
+import com.google.common.collect.Lists;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.redis.api.Priority;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded queue of outgoing payloads that is
+ * drained by a small, fixed set of writer threads.
+ *
+ * <p>
+ * Each writer has a slice of the queue to itself,
+ * and every type of payload (i.e. focus) is pinned
+ * to one of them; so the payloads of a focus go
+ * out in the order they were queued. Each payload
+ * gets the next sequence number of its writer, so
+ * we always know how far along a writer is.
+ *
+ * <p>
+ * Each writer grabs whatever has piled up (up to
+ * {@link RedisConfig#batchSize}), lingers for
+ * {@link RedisConfig#flushIntervalMillis} to see
+ * if anything else shows up, then hands the whole
+ * batch off to be sent in one pipeline.
+ *
+ * <p>
+ * There's one of these per {@link Priority}. Queues
+ * may be told to hold off while a more urgent one
+ * still has work, so bulk traffic goes out last.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/15/2017 (6:20 PM)
+ */
+class PublishQueue
+{
+
+    /** how long writers wait on an empty queue before re-checking whether we're still running */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /** the longest (in ms) we'll hold a batch back for more urgent payloads; so we never starve */
+    private static final long MAX_YIELD_MILLIS = 50;
+
+    /** our settings */
+    private final RedisConfig config;
+
+    /** what's waiting to be sent | one slice per writer */
+    private final Shard[] shards;
+
+    /** the class of payloads we're sending */
+    final Priority priority;
+
+    /** actually sends a batch of payloads | returns how many of them couldn't be sent */
+    private final ToIntFunction<List<Outbound>> writer;
+
+    /** whether a more urgent queue still has payloads to send */
+    private final BooleanSupplier yieldTo;
+
+    /** payloads that have been accepted but not yet written */
+    private final AtomicLong pending = new AtomicLong();
+
+    /** payloads we've thrown out due to a full queue */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** guards {@link #flush(long)} waiting on our shards */
+    private final Object flushLock = new Object();
+
+    /** whether or not we're accepting payloads */
+    private volatile boolean running = true;
+
+    /**
+     * @param config our settings
+     * @param priority the class of payloads we're sending
+     * @param writerThreads how many threads to write w/
+     * @param writer sends a batch of payloads; returns how many of them couldn't be sent
+     * @param yieldTo whether a more urgent queue still has payloads to
+     *                send; our writers hold off until it doesn't
+     */
+    PublishQueue(RedisConfig config, Priority priority, int writerThreads, ToIntFunction<List<Outbound>> writer, BooleanSupplier yieldTo)
+    {
+        this.config = config;
+        this.priority = priority;
+        this.writer = writer;
+        this.yieldTo = yieldTo;
+        this.shards = new Shard[Math.max(1, writerThreads)];
+
+        // the capacity is for all of them together
+        final int _capacity = Math.max(1, config.queueCapacity / shards.length);
+
+        for (int i = 0; i < shards.length; i++)
+        {
+            final Shard _shard = shards[i] = new Shard(_capacity);
+
+            _shard.writer = new Thread(() -> drain(_shard), "Hyleria Redis Writer (" + priority + ") #" + i);
+            _shard.writer.setDaemon(true);
+            _shard.writer.start();
+        }
+    }
+
+    /**
+     * Queue up the provided payload.
+     *
+     * @param outbound what we're sending
+     * @return whether or not we accepted it
+     */
+    boolean offer(Outbound outbound)
+    {
+        if (!running)
+            return false;
+
+        final Shard _shard = shardFor(outbound);
+
+        pending.incrementAndGet();
+
+        boolean _accepted;
+
+        // sequence numbers have to go into the queue in order
+        synchronized (_shard)
+        {
+            outbound.sequence = ++_shard.sequence;
+
+            try
+            {
+                _accepted = config.overflowPolicy == RedisConfig.OverflowPolicy.BLOCK
+                            ? _shard.queue.offer(outbound, config.blockTimeoutMillis, TimeUnit.MILLISECONDS)
+                            : _shard.queue.offer(outbound);
+            }
+            catch (InterruptedException ex)
+            {
+                Thread.currentThread().interrupt();
+                _accepted = false;
+            }
+
+            if (_accepted)
+                _shard.accepted = outbound.sequence;
+        }
+
+        if (!_accepted)
+        {
+            dropped.incrementAndGet();
+            pending.decrementAndGet();
+            _shard.failed(outbound.sequence, outbound.sequence);
+        }
+
+        return _accepted;
+    }
+
+    /**
+     * Block until everything queued up before
+     * this call has been written out. Anything
+     * queued after we're called isn't waited on.
+     *
+     * <p>
+     * A payload that was dropped, or whose write
+     * failed, since the last flush means this
+     * one didn't get everything out.
+     *
+     * @param timeoutMillis the most time we'll wait
+     * @return whether or not everything was written
+     */
+    boolean flush(long timeoutMillis)
+    {
+        final long _deadline = System.currentTimeMillis() + timeoutMillis;
+
+        // each shard is written in order; once it's finished this sequence number, it's done what we're waiting on
+        final long[] _targets = new long[shards.length];
+
+        // ^ which includes the ones we dropped along the way
+        final long[] _handedOut = new long[shards.length];
+
+        for (int i = 0; i < shards.length; i++)
+        {
+            _handedOut[i] = shards[i].sequence;
+            _targets[i] = shards[i].accepted;
+        }
+
+        synchronized (flushLock)
+        {
+            while (!reached(_targets))
+            {
+                final long _remaining = _deadline - System.currentTimeMillis();
+
+                if (_remaining <= 0)
+                    return false;
+
+                try
+                {
+                    flushLock.wait(_remaining);
+                }
+                catch (InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+
+        boolean _sent = true;
+
+        for (int i = 0; i < shards.length; i++)
+            _sent &= !shards[i].failedThrough(_handedOut[i]);
+
+        return _sent;
+    }
+
+    /**
+     * Stop accepting payloads, and give our
+     * writers some time to finish up.
+     *
+     * @param timeoutMillis how long we'll wait for that
+     */
+    void shutdown(long timeoutMillis)
+    {
+        running = false;
+        flush(timeoutMillis);
+
+        for (Shard shard : shards)
+            shard.writer.interrupt();
+    }
+
+    /**
+     * @return how many payloads are waiting to be sent
+     */
+    int depth()
+    {
+        int _depth = 0;
+
+        for (Shard shard : shards)
+            _depth += shard.queue.size();
+
+        return _depth;
+    }
+
+    /**
+     * @return whether anything we've accepted is still unsent
+     */
+    boolean busy()
+    {
+        return pending.get() > 0;
+    }
+
+    /**
+     * @return how many payloads we've dropped so far
+     */
+    long dropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * @param outbound a payload on its way out
+     * @return the shard it goes through; always
+     *         the same one for the same focus
+     */
+    private Shard shardFor(Outbound outbound)
+    {
+        // every focus is its own type of payload
+        return shards[(outbound.payload.getClass().hashCode() & Integer.MAX_VALUE) % shards.length];
+    }
+
+    /**
+     * @param targets the sequence number each shard has to have finished
+     * @return whether every shard has gotten that far
+     */
+    private boolean reached(long[] targets)
+    {
+        for (int i = 0; i < shards.length; i++)
+            if (shards[i].finished < targets[i])
+                return false;
+
+        return true;
+    }
+
+    /**
+     * What each of our writer threads runs
+     *
+     * @param shard the slice of the queue it has to itself
+     */
+    private void drain(Shard shard)
+    {
+        final BlockingQueue<Outbound> _queue = shard.queue;
+        final int _batchSize = Math.max(1, config.batchSize);
+        final long _linger = TimeUnit.MILLISECONDS.toNanos(config.flushIntervalMillis);
+        final List<Outbound> _batch = Lists.newArrayListWithCapacity(_batchSize);
+
+        while (running || !_queue.isEmpty())
+        {
+            try
+            {
+                final Outbound _head = _queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (_head == null)
+                    continue;
+
+                _batch.add(_head);
+                _queue.drainTo(_batch, _batchSize - 1);
+
+                // give the rest of a burst a moment to show up
+                final long _until = System.nanoTime() + _linger;
+
+                while (_batch.size() < _batchSize && running)
+                {
+                    final long _remaining = _until - System.nanoTime();
+
+                    if (_remaining <= 0)
+                        break;
+
+                    final Outbound _next = _queue.poll(_remaining, TimeUnit.NANOSECONDS);
+
+                    if (_next == null)
+                        break;
+
+                    _batch.add(_next);
+                    _queue.drainTo(_batch, _batchSize - _batch.size());
+                }
+            }
+            catch (InterruptedException ex)
+            {
+                // we'll still write out what we have below
+                if (running)
+                    continue;
+            }
+
+            if (!_batch.isEmpty())
+            {
+                awaitUrgent();
+
+                final long _first = _batch.get(0).sequence;
+                final long _last = _batch.get(_batch.size() - 1).sequence;
+
+                try
+                {
+                    if (writer.applyAsInt(_batch) > 0)
+                        shard.failed(_first, _last);
+                }
+                catch (Exception ex)
+                {
+                    shard.failed(_first, _last);
+
+                    ex.printStackTrace();
+                    System.err.println("Failed to write " + _batch.size() + " Redis payload(s)");
+                    System.err.println();
+                }
+                finally
+                {
+                    completed(shard, _last, _batch.size());
+                    _batch.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Hold off (for a bit) while a more
+     * urgent queue still has work to do
+     */
+    private void awaitUrgent()
+    {
+        final long _until = System.currentTimeMillis() + MAX_YIELD_MILLIS;
+
+        try
+        {
+            while (running && yieldTo.getAsBoolean() && System.currentTimeMillis() < _until)
+                Thread.sleep(1);
+        }
+        catch (InterruptedException ex)
+        {
+            // shutting down; just send it
+        }
+    }
+
+    /**
+     * Mark a batch of payloads as done
+     * with; whether they were sent or not
+     *
+     * @param shard the shard they went through
+     * @param through the sequence number of the last one
+     * @param count how many
+     */
+    private void completed(Shard shard, long through, int count)
+    {
+        pending.addAndGet(-count);
+        shard.finished = through;
+
+        synchronized (flushLock)
+        {
+            flushLock.notifyAll();
+        }
+    }
+
+    /**
+     * A writer & the slice of the queue it drains
+     */
+    private static class Shard
+    {
+        /** what's waiting to be sent */
+        final BlockingQueue<Outbound> queue;
+
+        /** the last sequence number handed out | only changed while holding this shard */
+        volatile long sequence;
+
+        /** the sequence number of the last payload put in {@link #queue} */
+        volatile long accepted;
+
+        /** the sequence number of the last payload we're done w/ */
+        volatile long finished;
+
+        /** guards the two below */
+        private final Object failureLock = new Object();
+
+        /** the earliest sequence number that didn't make it out, and hasn't been reported by a flush */
+        private long earliestFailure = Long.MAX_VALUE;
+
+        /** the latest sequence number that didn't make it out */
+        private long latestFailure;
+
+        /** the thread draining {@link #queue} */
+        Thread writer;
+
+        Shard(int capacity)
+        {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        /**
+         * @param from the sequence number of the first payload that didn't make it out
+         * @param through the sequence number of the last one
+         */
+        void failed(long from, long through)
+        {
+            synchronized (failureLock)
+            {
+                earliestFailure = Math.min(earliestFailure, from);
+                latestFailure = Math.max(latestFailure, through);
+            }
+        }
+
+        /**
+         * Check for, & clear, failures up to
+         * the provided sequence number. Anything
+         * that failed after it is left for the
+         * next one to find.
+         *
+         * @param through the last sequence number we care about
+         * @return whether anything up to it didn't make it out
+         */
+        boolean failedThrough(long through)
+        {
+            synchronized (failureLock)
+            {
+                if (earliestFailure > through)
+                    return false;
+
+                // we only keep a range; err on the side of reporting it again
+                earliestFailure = latestFailure > through ? through + 1 : Long.MAX_VALUE;
+
+                return true;
+            }
+        }
+    }
+
+    /**
+     * A payload on its way out
+     */
+    static class Outbound
+    {
+        /** the raw channel it's going out on */
+        final String channel;
+
+        /** the payload itself */
+        final Payload payload;
+
+        /** see {@link Envelope#correlation()} */
+        final String correlation;
+
+        /** see {@link Envelope#replyTo()} */
+        final String replyTo;
+
+        /** where it falls in its writer's order | set once queued */
+        long sequence;
+
+        Outbound(String channel, Payload payload)
+        {
+            this(channel, payload, null, null);
+        }
+
+        Outbound(String channel, Payload payload, String correlation, String replyTo)
+        {
+            this.channel = channel;
+            this.payload = payload;
+            this.correlation = correlation;
+            this.replyTo = replyTo;
+        }
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.hyleria.common.redis;
 
+import com.hyleria.common.redis.api.Priority;
+
 /**
  * @author Ben (OutdatedVersion)
  * @since Mar/24/2017 (3:31 PM)
@@ -11,24 +13,64 @@ public enum RedisChannel
      * Where communication that isn't related to any
      * particular topic goes.
      */
-    DEFAULT("gen"),
+    DEFAULT("gen", Priority.NORMAL),
 
     /**
      * Where primarily backend related chatter goes.
      * For example, the state of a
      */
-    NETWORK("backend");
+    NETWORK("backend", Priority.NORMAL);
 
     /** the raw channel */
     public final String channel;
 
+    /** the least urgent anything sent on this channel will be */
+    public final Priority priority;
+
     /**
      * @param val the ending part; so we may format
      *            it to how it should be
+     * @param priority see {@link #priority}
      */
-    RedisChannel(String val)
+    RedisChannel(String val, Priority priority)
     {
         this.channel = "hyleria-" + val;
+        this.priority = priority;
+    }
+
+    /**
+     * @param raw a raw channel
+     * @return the channel it is, or {@code null}
+     *         if it isn't one of ours (i.e. it's
+     *         for a single server)
+     */
+    public static RedisChannel fromRaw(String raw)
+    {
+        for (RedisChannel channel : values())
+            if (channel.channel.equals(raw))
+                return channel;
+
+        return null;
+    }
+
+    /**
+     * @param server the name of a server
+     * @return the raw channel payloads for
+     *         only that server are sent on
+     */
+    public static String forServer(String server)
+    {
+        return "hyleria-server." + server;
+    }
+
+    /**
+     * @param proxy the name of a proxy
+     * @return the raw channel payloads for
+     *         only that proxy are sent on
+     */
+    public static String forProxy(String proxy)
+    {
+        return "hyleria-proxy." + proxy;
     }
 
 }
@@ -0,0 +1,125 @@
+package com.hyleria.common.redis;
+
+import com.google.gson.annotations.SerializedName;
+import com.hyleria.common.redis.api.Priority;
+
+/**
+ * Connection details & tuning for our
+ * {@link RedisHandler}. Every value has
+ * a sane default, so a missing field in
+ * the file is perfectly fine.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/15/2017 (6:02 PM)
+ */
+public class RedisConfig
+{
+
+    /** where our Redis instance lives */
+    public String host = "127.0.0.1";
+
+    /** the port it's listening on */
+    public int port = 6379;
+
+    /** how many connections the rest of the plugin may borrow at once; see {@link RedisHandler#resource} */
+    @SerializedName ( "pool_size" )
+    public int poolSize = 16;
+
+    /** how many connections may be used for accounts at once; see {@link RedisHandler#accountResource} */
+    @SerializedName ( "account_pool_size" )
+    public int accountPoolSize = 16;
+
+    /** how long (in ms) account lookups wait for a connection before going to Mongo instead */
+    @SerializedName ( "account_pool_wait_ms" )
+    public long accountPoolWaitMillis = 250;
+
+    /** how many threads write our outgoing {@link Priority#NORMAL} payloads */
+    @SerializedName ( "writer_threads" )
+    public int writerThreads = 2;
+
+    /** how many threads write our outgoing {@link Priority#HIGH} payloads */
+    @SerializedName ( "high_priority_writer_threads" )
+    public int highPriorityWriterThreads = 1;
+
+    /** how many threads write our outgoing {@link Priority#BULK} payloads */
+    @SerializedName ( "bulk_writer_threads" )
+    public int bulkWriterThreads = 1;
+
+    /** the most payloads we'll pipeline in one round trip */
+    @SerializedName ( "batch_size" )
+    public int batchSize = 128;
+
+    /** how long (in ms) a writer waits for more payloads before flushing a partial batch */
+    @SerializedName ( "flush_interval_ms" )
+    public long flushIntervalMillis = 2;
+
+    /** how many payloads may be waiting to be sent at once; per priority */
+    @SerializedName ( "queue_capacity" )
+    public int queueCapacity = 8192;
+
+    /** what we do when the queue above is full */
+    @SerializedName ( "overflow_policy" )
+    public OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+    /** with {@link OverflowPolicy#BLOCK}; how long (in ms) we'll wait for space before dropping */
+    @SerializedName ( "block_timeout_ms" )
+    public long blockTimeoutMillis = 250;
+
+    /** how many lanes (threads) run our hooks; each focus always sticks to one of them */
+    @SerializedName ( "dispatch_threads" )
+    public int dispatchThreads = 4;
+
+    /** how many incoming payloads may be waiting in a single lane */
+    @SerializedName ( "dispatch_queue_capacity" )
+    public int dispatchQueueCapacity = 1024;
+
+    /** how long (in ms) the subscriber waits for room in a full lane before dropping a payload */
+    @SerializedName ( "dispatch_block_timeout_ms" )
+    public long dispatchBlockTimeoutMillis = 1000;
+
+    /** payloads whose JSON is longer than this (in chars) are compressed before being sent; 0 to never */
+    @SerializedName ( "compression_threshold" )
+    public int compressionThreshold = 1024;
+
+    /** how long (in seconds, at minimum) we remember message IDs for to drop duplicates; 0 to not bother */
+    @SerializedName ( "dedup_window_seconds" )
+    public long dedupWindowSeconds = 30;
+
+    /**
+     * @param priority a class of payloads
+     * @return how many threads write them out
+     */
+    public int writerThreads(Priority priority)
+    {
+        switch (priority)
+        {
+            case HIGH:
+                return highPriorityWriterThreads;
+
+            case BULK:
+                return bulkWriterThreads;
+
+            default:
+                return writerThreads;
+        }
+    }
+
+    /**
+     * What to do with a payload when
+     * our outgoing queue is full.
+     */
+    public enum OverflowPolicy
+    {
+        /**
+         * Wait (up to {@link #blockTimeoutMillis})
+         * for room, then give up on it.
+         */
+        BLOCK,
+
+        /**
+         * Throw it out right away.
+         */
+        DROP
+    }
+
+}
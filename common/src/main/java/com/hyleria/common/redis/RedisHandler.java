@@ -1,24 +1,34 @@
 package com.hyleria.common.redis;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.google.inject.Singleton;
+import com.hyleria.common.redis.api.Durable;
 import com.hyleria.common.redis.api.Focus;
 import com.hyleria.common.redis.api.FromChannel;
 import com.hyleria.common.redis.api.HandlesType;
 import com.hyleria.common.redis.api.Payload;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
+import com.hyleria.common.redis.api.Priority;
+import com.hyleria.common.redis.codec.PayloadCodecs;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPool;
-import redis.clients.jedis.JedisPubSub;
 
-import java.lang.reflect.InvocationTargetException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -34,48 +44,137 @@ public class RedisHandler
     /** whether or not to print out debug messages here */
     private static final boolean DEBUG_ENABLED = Boolean.valueOf(System.getProperty("com.hyleria.common.redis.debug", "false"));
 
-    /** convert raw JSON strings into Java objects */
-    private static final JSONParser JSON_PARSER = new JSONParser();
-
     /** JSON <-> Java object */
     private static final Gson GSON = new Gson();
 
-    /** load the focus from the provided payload class | cache due to the basic reflection present */
-    private LoadingCache<Class<? extends Payload>, String> payloadFocusCache = CacheBuilder.newBuilder()
-            .expireAfterAccess(4, TimeUnit.HOURS)
-            .build(new CacheLoader<Class<? extends Payload>, String>()
-    {
-        @Override
-        public String load(Class<? extends Payload> key) throws Exception
-        {
-            checkState(key.isAnnotationPresent(Focus.class), "Invalid payload! Missing Focus annotation.");
-            debug("Fetching focus for payload type: " + key.getName());
+    /** raw message -> payload, in one pass */
+    private static final PayloadDecoder DECODER = new PayloadDecoder(GSON);
 
-            return key.getAnnotation(Focus.class).value();
-        }
-    });
+    /** how long we'll wait for outgoing payloads to be written when shutting down */
+    private static final long SHUTDOWN_FLUSH_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    /** what actually moves our messages around */
+    private MessageTransport transport;
+
+    /** turns the methods behind our hooks into invokers */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** the shape every hook invoker is adapted to | hooks without a reply return {@code null} */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Payload.class);
+
+    /** collection of hooks to our redis system | focus -> every hook interested in it */
+    private final ConcurrentHashMap<String, List<HookData>> hooks = new ConcurrentHashMap<>();
+
+    /** outgoing payloads waiting to be pipelined out | one per priority */
+    private final EnumMap<Priority, PublishQueue> publishQueues = new EnumMap<>(Priority.class);
+
+    /** how urgent each type of payload is | type -> priority */
+    private final ConcurrentHashMap<Class<? extends Payload>, Priority> priorities = new ConcurrentHashMap<>();
+
+    /** raw channels we treat as though they were another channel | raw -> logical */
+    private final ConcurrentHashMap<String, String> channelAliases = new ConcurrentHashMap<>();
+
+    /** whether {@link #durable(String)} has been called */
+    private volatile boolean durable;
+
+    /** raw channels we're subscribed to; so durable streams may be picked up later */
+    private final Set<String> subscribedChannels = ConcurrentHashMap.newKeySet();
+
+    /** the durability settings of each payload type | no entry means it isn't durable */
+    private final ConcurrentHashMap<Class<? extends Payload>, Optional<Durable>> durability = new ConcurrentHashMap<>();
 
-    /** a pool of redis connections */
-    private JedisPool pool;
+    /** runs our hooks off of the subscriber thread */
+    private HookDispatcher dispatcher;
 
-    /** one {@link Jedis} instance dedicated to the thread-blocking op of "subbing" to channels */
-    private volatile Jedis subscriber;
+    /** runs things on the platform's primary thread; {@code null} if there isn't one */
+    private volatile Executor primaryThreadExecutor;
 
-    /** collection of hooks to our redis system */
-    private ConcurrentHashMap<String, HookData> hooks;
+    /** unique to this handler; used to tell our requests apart from everyone else's */
+    private final String instanceID = UUID.randomUUID().toString().substring(0, 8);
 
-    /** run redis requests async */
-    private ExecutorService executor;
+    /** the channel replies to our requests are sent to */
+    private final String replyChannel = "hyleria-reply." + instanceID;
+
+    /** hands out correlation IDs */
+    private final AtomicLong requestCounter = new AtomicLong();
+
+    /** hands out message IDs */
+    private final AtomicLong messageCounter = new AtomicLong();
+
+    /** payloads longer than this (in chars) are compressed; 0 to never */
+    private int compressionThreshold;
+
+    /** drops messages we've already seen; {@code null} if turned off */
+    private MessageDeduplicator deduplicator;
+
+    /** requests that are still waiting on replies | correlation ID -> request */
+    private final ConcurrentHashMap<String, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+
+    /** the types of replies we are expecting | focus -> type */
+    private final ConcurrentHashMap<String, Class<? extends Payload>> replyTypes = new ConcurrentHashMap<>();
+
+    /** expires requests that have been waiting too long */
+    private ScheduledExecutorService timeoutService;
 
     /**
      * Start up our connection pool
+     * using the default settings.
      *
      * @return this handler
      */
     public RedisHandler init()
     {
-        pool = new JedisPool();
-        executor = Executors.newCachedThreadPool();
+        return init(null);
+    }
+
+    /**
+     * Start up our connection pool
+     *
+     * @param config our settings; {@code null}
+     *               to use the defaults
+     * @return this handler
+     */
+    public RedisHandler init(RedisConfig config)
+    {
+        if (config == null)
+            config = new RedisConfig();
+
+        return init(config, new JedisTransport(config));
+    }
+
+    /**
+     * Start up over the provided transport; i.e.
+     * an {@link InMemoryTransport} for tests.
+     *
+     * @param config our settings; {@code null}
+     *               to use the defaults
+     * @param transport what we'll send & receive over
+     * @return this handler
+     */
+    public RedisHandler init(RedisConfig config, MessageTransport transport)
+    {
+        if (config == null)
+            config = new RedisConfig();
+
+        this.transport = transport;
+
+        for (Priority priority : Priority.values())
+            publishQueues.put(priority, new PublishQueue(config, priority, config.writerThreads(priority), batch -> write(priority, batch), () -> urgentWork(priority)));
+
+        dispatcher = new HookDispatcher(config);
+        compressionThreshold = config.compressionThreshold;
+        transport.start(this::receive, replyChannel);
+
+        if (config.dedupWindowSeconds > 0)
+            deduplicator = new MessageDeduplicator(config.dedupWindowSeconds, TimeUnit.SECONDS);
+
+        timeoutService = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            final Thread _thread = new Thread(runnable, "Hyleria Redis Request Timeouts");
+            _thread.setDaemon(true);
+
+            return _thread;
+        });
 
         return this;
     }
@@ -87,16 +186,28 @@ public class RedisHandler
      */
     public RedisHandler releaseResources()
     {
-        pool.close();
-        executor.shutdown();
-        subscriber.close();
+        // stop taking in new payloads, finish up what we've
+        // received, then get out whatever we still have queued up
+        transport.stopReceiving();
+        dispatcher.shutdown(SHUTDOWN_FLUSH_MILLIS);
+
+        // most urgent first; they all share the same deadline
+        final long _deadline = System.currentTimeMillis() + SHUTDOWN_FLUSH_MILLIS;
+
+        for (PublishQueue queue : publishQueues.values())
+            queue.shutdown(Math.max(0, _deadline - System.currentTimeMillis()));
+
+        transport.close();
+        timeoutService.shutdownNow();
 
         return this;
     }
 
     /**
      * Start receiving data from the provided
-     * Redis channels
+     * Redis channels. May be called as many
+     * times as you'd like; even after we've
+     * already connected.
      *
      * @param channels the channels to listen to
      * @return this handler
@@ -105,66 +216,441 @@ public class RedisHandler
     {
         readyCheck("incoming data handler setup");
 
-        // we need the channels we're subbing to as Strings so
-        final String[] _channelsAsString = new String[channels.length];
+        final String[] _raw = raw(channels);
+
+        transport.subscribe(_raw);
+        subscribedChannels.addAll(Arrays.asList(_raw));
+
+        return this;
+    }
+
+    /**
+     * Start receiving data from a raw channel, handing
+     * everything sent on it to the hooks of another
+     * channel. This is how a single server (or proxy)
+     * gets its own channel that payloads may be routed
+     * to without every other server seeing them.
+     *
+     * @param raw the raw channel; i.e. {@link RedisChannel#forServer(String)}
+     * @param as the channel whose hooks should receive its payloads
+     * @return this handler
+     */
+    public RedisHandler subscribeAs(final String raw, final RedisChannel as)
+    {
+        readyCheck("incoming data handler setup");
+
+        channelAliases.put(raw, as.channel);
+        transport.subscribe(raw);
+        subscribedChannels.add(raw);
+
+        return this;
+    }
+
+    /**
+     * Start receiving {@link Durable} payloads. These
+     * are read from a Redis Stream for each channel
+     * we're subscribed to, rather than pub/sub.
+     *
+     * <p>
+     * Every server on the network should call this;
+     * durable payloads are never sent over pub/sub.
+     *
+     * @param consumerGroup who we are; must stay the same
+     *                      across restarts so that we pick
+     *                      up where we left off. the server's
+     *                      name is ideal.
+     * @return this handler
+     */
+    public synchronized RedisHandler durable(String consumerGroup)
+    {
+        readyCheck("durable payload setup");
+        checkState(!durable, "Durable payloads have already been set up");
+
+        transport.durable(consumerGroup, subscribedChannels.toArray(new String[0]));
+        durable = true;
+
+        return this;
+    }
+
+    /**
+     * Stop receiving data from the provided channels
+     *
+     * @param channels the channels
+     * @return this handler
+     */
+    public RedisHandler unsubscribe(final RedisChannel... channels)
+    {
+        readyCheck("incoming data handler removal");
+
+        final String[] _raw = raw(channels);
+
+        transport.unsubscribe(_raw);
+        subscribedChannels.removeAll(Arrays.asList(_raw));
+
+        return this;
+    }
+
+    /**
+     * Start receiving data from every channel
+     * matching the provided (glob-style) patterns.
+     *
+     * <p>
+     * Be careful not to overlap with a channel
+     * you've subscribed to directly; Redis will
+     * deliver those messages to us twice.
+     *
+     * @param patterns the patterns; i.e. {@code hyleria-*}
+     * @return this handler
+     */
+    public RedisHandler subscribePattern(final String... patterns)
+    {
+        readyCheck("incoming data handler setup");
+
+        transport.subscribePattern(patterns);
+
+        return this;
+    }
+
+    /**
+     * Stop receiving data from the provided patterns
+     *
+     * @param patterns the patterns
+     * @return this handler
+     */
+    public RedisHandler unsubscribePattern(final String... patterns)
+    {
+        readyCheck("incoming data handler removal");
+
+        transport.unsubscribePattern(patterns);
+
+        return this;
+    }
+
+    /**
+     * @return the state of the connection we receive payloads on
+     */
+    public ConnectionState connectionState()
+    {
+        return transport == null ? ConnectionState.DISCONNECTED : transport.state();
+    }
+
+    /**
+     * @return how many times we've had to reconnect
+     */
+    public long reconnects()
+    {
+        readyCheck("reconnect count");
+
+        return transport.reconnects();
+    }
+
+    /**
+     * @return when we last (re)connected; epoch ms,
+     *         or {@code 0} if we never have
+     */
+    public long connectedAt()
+    {
+        readyCheck("connection time");
+
+        return transport.connectedAt();
+    }
+
+    /**
+     * @return how many channels & patterns we're listening to
+     */
+    public int subscriptionCount()
+    {
+        readyCheck("subscription count");
+
+        return transport.subscriptionCount();
+    }
+
+    /**
+     * Process a message we've received. Runs on
+     * the subscriber thread, so we only decode it
+     * here; the hooks are run in a dispatch lane.
+     *
+     * @param channel the channel it was sent on
+     * @param message the raw message
+     */
+    private void receive(String raw, String message)
+    {
+        receive(raw, message, 0, null);
+    }
+
+    /**
+     * Process a message we've received.
+     *
+     * @param raw the raw channel it was sent on
+     * @param message the raw message
+     * @param sentAt for durable payloads; when it was sent
+     * @param ack for durable payloads; run once we're done with it.
+     *            {@code null} otherwise.
+     */
+    private void receive(String raw, String message, long sentAt, Runnable ack)
+    {
+        final String channel = channelAliases.getOrDefault(raw, raw);
+
+        try
+        {
+            debug("Received JSON message on channel: " + channel);
+            debug("Message: [" + message + "]");
+
+            if (channel.equals(replyChannel))
+            {
+                final Envelope _reply = DECODER.decode(message, replyTypes::get);
+
+                if (_reply != null && !duplicate(_reply))
+                    dispatch(_reply.focus, () -> completeRequest(_reply));
+
+                return;
+            }
+
+            final Envelope _envelope = DECODER.decode(message, focus -> typeFor(focus, channel));
+
+            // we've already dealt with this one
+            if (_envelope != null && duplicate(_envelope))
+            {
+                debug("Dropping duplicate message [" + _envelope.id() + "]");
+
+                if (ack != null)
+                    ack.run();
+
+                return;
+            }
+
+            if (ack == null)
+            {
+                if (_envelope != null)
+                    dispatch(_envelope.focus, () -> handle(channel, _envelope, null));
+
+                return;
+            }
+
+            // nobody here cares, or it's too late for it to matter
+            if (_envelope == null || _envelope.payload == null || expired(_envelope.payload, sentAt))
+            {
+                ack.run();
+                return;
+            }
+
+            // not acknowledged if it's dropped; we'll get it again on restart
+            dispatch(_envelope.focus, () -> handle(channel, _envelope, ack));
+        }
+        catch (IOException ex)
+        {
+            // it'll never decode; don't have it replayed forever
+            if (ack != null)
+                ack.run();
+
+            System.err.println("Invalid JSON provided to Redis system");
+            System.err.println("Verify this payload is correct:");
+            System.err.println(message);
+            System.err.println();
+        }
+    }
+
+    /**
+     * @param envelope something we just received
+     * @return whether we've seen it before
+     */
+    private boolean duplicate(Envelope envelope)
+    {
+        final MessageDeduplicator _deduplicator = deduplicator;
+
+        return _deduplicator != null && envelope.id() != null && !_deduplicator.firstSeen(envelope.id());
+    }
+
+    /**
+     * @param payload a durable payload
+     * @param sentAt when it was sent
+     * @return whether it's too old to bother with
+     */
+    private boolean expired(Payload payload, long sentAt)
+    {
+        return durabilityOf(payload.getClass()).map(durable -> durable.maxAgeMillis() > 0 && System.currentTimeMillis() - sentAt > durable.maxAgeMillis())
+                                               .orElse(false);
+    }
+
+    /**
+     * @param type a type of payload
+     * @return its durability settings; empty if it isn't durable
+     */
+    private Optional<Durable> durabilityOf(Class<? extends Payload> type)
+    {
+        return durability.computeIfAbsent(type, key -> Optional.ofNullable(key.getAnnotation(Durable.class)));
+    }
+
+    /**
+     * @param channels the channels
+     * @return the raw names of the provided channels
+     */
+    private static String[] raw(RedisChannel... channels)
+    {
+        final String[] _raw = new String[channels.length];
 
         for (int i = 0; i < channels.length; i++)
-            _channelsAsString[i] = channels[i].channel;
+            _raw[i] = channels[i].channel;
 
-        new Thread("Hyleria Redis Pub/Sub")
+        return _raw;
+    }
+
+    /**
+     * Hand the provided task off to the
+     * dispatch lane for its focus.
+     *
+     * @param focus the focus
+     * @param task what to run
+     */
+    private void dispatch(String focus, Runnable task)
+    {
+        if (!dispatcher.dispatch(focus, task))
+            System.err.println("Dropped incoming Redis payload [" + focus + "]; dispatch lane is full");
+    }
+
+    /**
+     * Run every hook interested in the
+     * provided envelope. Called from
+     * the envelope's dispatch lane.
+     *
+     * @param channel the channel we received it on
+     * @param envelope the envelope
+     * @param done run once every hook has finished; including
+     *             those on the primary thread | may be {@code null}
+     */
+    private void handle(String channel, Envelope envelope, Runnable done)
+    {
+        final FocusMetrics _metrics = dispatcher.metrics(envelope.focus);
+
+        // one for each hook still running elsewhere, & one for us
+        final AtomicInteger _running = new AtomicInteger(1);
+        final Runnable _finished = () ->
         {
-            @Override
-            public void run()
+            if (_running.decrementAndGet() == 0 && done != null)
+                done.run();
+        };
+
+        for (HookData data : hooks.getOrDefault(envelope.focus, Collections.emptyList()))
+        {
+            if (!data.channel.equals(channel))
+                continue;
+
+            final Runnable _run = () ->
             {
-                subscriber = pool.getResource();
-                subscriber.connect();
+                final long _start = System.nanoTime();
+                final Object _reply = data.invoke(envelope.payload);
+
+                _metrics.recordHook(System.nanoTime() - _start);
 
-                subscriber.subscribe(new JedisPubSub()
+                if (_reply != null && envelope.expectsReply())
+                    reply(envelope, (Payload) _reply);
+            };
+
+            final Executor _primary = primaryThreadExecutor;
+
+            if (data.primaryThread && _primary != null)
+            {
+                _running.incrementAndGet();
+
+                _primary.execute(() ->
                 {
-                    @Override
-                    public void onMessage(String channel, String message)
+                    try
+                    {
+                        _run.run();
+                    }
+                    finally
                     {
-                        try
-                        {
-                            debug("Received JSON message on channel: " + channel);
-                            debug("Message: [" + message + "]");
-
-                            final JSONObject _json = (JSONObject) JSON_PARSER.parse(message);
-                            final String _focus = (String) _json.get("focus");
-
-                            if (hooks.containsKey(_focus))
-                            {
-                                final HookData _data = hooks.get(_focus);
-
-                                if (_data.channel.equals(channel))
-                                {
-                                    _data.method.invoke(_data.possessor, GSON.fromJson(_json.containsKey("payload")
-                                                                                       ? ((JSONObject) _json.get("payload")).toJSONString()
-                                                                                       : "", _data.payloadType));
-                                }
-                            }
-                        }
-                        catch (ParseException ex)
-                        {
-                            System.err.println("Invalid JSON provided to Redis system");
-                            System.err.println("Verify this payload is correct:");
-                            System.err.println(message);
-                            System.err.println();
-                        }
-                        catch (IllegalAccessException | InvocationTargetException ex)
-                        {
-                            ex.printStackTrace();
-                            System.err.println("Unable to manually invoke the method behind the provided Redis hook");
-                            System.err.println();
-                        }
+                        _finished.run();
                     }
-                }, _channelsAsString);
+                });
             }
-        }.start();
+            else
+            {
+                _run.run();
+            }
+        }
 
+        _finished.run();
+    }
+
+    /**
+     * Provide a way to run hooks on the platform's
+     * primary thread (i.e. the Bukkit main thread).
+     * Only hooks with {@link HandlesType#primaryThread()}
+     * set will use it.
+     *
+     * @param executor the executor
+     * @return this handler
+     */
+    public RedisHandler primaryThreadExecutor(Executor executor)
+    {
+        this.primaryThreadExecutor = executor;
         return this;
     }
 
+    /**
+     * @return what runs things on the platform's primary
+     *         thread; {@code null} if there isn't one
+     */
+    public Executor primaryThreadExecutor()
+    {
+        return primaryThreadExecutor;
+    }
+
+    /**
+     * @return how the payloads for each focus we've
+     *         received (or compressed) are doing | focus -> metrics
+     */
+    public Map<String, FocusMetrics> hookMetrics()
+    {
+        readyCheck("hook metrics");
+
+        return Collections.unmodifiableMap(dispatcher.allMetrics());
+    }
+
+    /**
+     * @return how we're doing at dropping duplicate
+     *         messages; {@code null} if we aren't
+     */
+    public MessageDeduplicator deduplicator()
+    {
+        return deduplicator;
+    }
+
+    /**
+     * @return how many payloads are waiting in each dispatch lane
+     */
+    public int[] dispatchQueueDepths()
+    {
+        readyCheck("dispatch queue depths");
+
+        return dispatcher.depths();
+    }
+
+    /**
+     * @return how many outgoing payloads are waiting to be sent
+     */
+    public int publishQueueDepth()
+    {
+        readyCheck("publish queue depth");
+
+        return publishQueues.values().stream().mapToInt(PublishQueue::depth).sum();
+    }
+
+    /**
+     * @return how many outgoing payloads are waiting
+     *         to be sent | priority -> how many
+     */
+    public Map<Priority, Integer> publishQueueDepths()
+    {
+        readyCheck("publish queue depth");
+
+        final EnumMap<Priority, Integer> _depths = new EnumMap<>(Priority.class);
+        publishQueues.forEach((priority, queue) -> _depths.put(priority, queue.depth()));
+
+        return _depths;
+    }
+
     /**
      * @param channel the {@link RedisChannel} we're sending it to
      * @param payload our payload
@@ -189,23 +675,232 @@ public class RedisHandler
     {
         readyCheck("outgoing payload request");
 
-        executor.submit(() ->
+        if (!queueFor(channel, payload).offer(new PublishQueue.Outbound(channel, payload)))
+            System.err.println("Dropped outgoing Redis payload [" + payload.getClass().getName() + "]; queue is full");
+
+        return this;
+    }
+
+    /**
+     * Block until every payload published
+     * before this call has been sent.
+     *
+     * @param timeout the most time we'll wait
+     * @param unit unit for the timeout
+     * @return whether or not everything was sent in time; {@code false}
+     *         if anything since the last flush was dropped or failed
+     */
+    public boolean flush(long timeout, TimeUnit unit)
+    {
+        readyCheck("flush outgoing payloads");
+
+        final long _deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+
+        for (PublishQueue queue : publishQueues.values())
+            if (!queue.flush(Math.max(0, _deadline - System.currentTimeMillis())))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Send out a request, and wait for the
+     * first reply to it.
+     *
+     * <p>
+     * Whoever is handling the request just
+     * needs to return the reply payload from
+     * their {@link HandlesType} hook.
+     *
+     * @param channel the channel the request goes out on
+     * @param request the request
+     * @param replyType the type of payload we expect back
+     * @param timeout how long we'll wait for a reply
+     * @param unit unit for the timeout
+     * @param <R> type of the reply
+     * @return a future completed with the first reply; or
+     *         exceptionally w/ a {@link TimeoutException}
+     */
+    public <R extends Payload> CompletableFuture<R> request(RedisChannel channel, Payload request, Class<R> replyType, long timeout, TimeUnit unit)
+    {
+        final PendingRequest<R> _pending = new PendingRequest<>(replyType, false);
+
+        sendRequest(channel, request, _pending, timeout, unit);
+
+        return _pending.first;
+    }
+
+    /**
+     * Send out a request, and collect every
+     * reply that shows up before the provided
+     * window is up. Perfect for asking everyone
+     * on the network something.
+     *
+     * @param channel the channel the request goes out on
+     * @param request the request
+     * @param replyType the type of payload we expect back
+     * @param window how long we'll collect replies for
+     * @param unit unit for the window
+     * @param <R> type of the replies
+     * @return a future completed w/ every reply we
+     *         received; may very well be empty
+     */
+    public <R extends Payload> CompletableFuture<List<R>> requestAll(RedisChannel channel, Payload request, Class<R> replyType, long window, TimeUnit unit)
+    {
+        final PendingRequest<R> _pending = new PendingRequest<>(replyType, true);
+
+        sendRequest(channel, request, _pending, window, unit);
+
+        return _pending.all;
+    }
+
+    /**
+     * Track the provided request, then send it out.
+     *
+     * @param channel where it's going
+     * @param request the request
+     * @param pending our tracker for it
+     * @param timeout when we stop waiting
+     * @param unit unit for the timeout
+     */
+    private void sendRequest(RedisChannel channel, Payload request, PendingRequest<?> pending, long timeout, TimeUnit unit)
+    {
+        readyCheck("outgoing request");
+
+        final String _correlation = instanceID + ":" + requestCounter.incrementAndGet();
+
+        replyTypes.putIfAbsent(PayloadCodecs.focusOf(pending.type), pending.type);
+        pendingRequests.put(_correlation, pending);
+
+        timeoutService.schedule(() ->
         {
-            debug("Publishing payload on " + channel + "\npayload w/o focus: [" + payload.asJSON().toJSONString() + "]");
+            if (pendingRequests.remove(_correlation) != null)
+                pending.expire();
+        }, timeout, unit);
 
-            try (Jedis jedis = pool.getResource())
+        if (!queueFor(channel.channel, request).offer(new PublishQueue.Outbound(channel.channel, request, _correlation, replyChannel)))
+        {
+            pendingRequests.remove(_correlation);
+            pending.fail(new RejectedExecutionException("Outgoing Redis queue is full"));
+        }
+    }
+
+    /**
+     * Send a reply back to whoever asked
+     *
+     * @param request the request we're replying to
+     * @param reply the reply
+     */
+    private void reply(Envelope request, Payload reply)
+    {
+        if (!queueFor(request.replyTo(), reply).offer(new PublishQueue.Outbound(request.replyTo(), reply, request.correlation(), null)))
+            System.err.println("Dropped Redis reply [" + reply.getClass().getName() + "]; queue is full");
+    }
+
+    /**
+     * Hand a reply off to the request waiting on it
+     *
+     * @param reply the reply
+     */
+    private void completeRequest(Envelope reply)
+    {
+        if (reply.correlation() == null)
+            return;
+
+        final PendingRequest<?> _pending = pendingRequests.get(reply.correlation());
+
+        // most likely timed out already
+        if (_pending == null)
+            return;
+
+        if (!_pending.many)
+            pendingRequests.remove(reply.correlation());
+
+        _pending.accept(reply.payload);
+    }
+
+    /**
+     * Send out a batch of payloads over
+     * our transport; in one round trip.
+     *
+     * @param priority the class of the payloads
+     * @param batch the payloads
+     * @return how many of them we couldn't send
+     */
+    private int write(Priority priority, List<PublishQueue.Outbound> batch)
+    {
+        final List<MessageTransport.Message> _messages = Lists.newArrayListWithCapacity(batch.size());
+
+        for (PublishQueue.Outbound outbound : batch)
+        {
+            try
             {
-                jedis.publish(channel, payload.asString(payloadFocusCache.get(payload.getClass())));
+                final Envelope _envelope = new Envelope(PayloadCodecs.focusOf(outbound.payload.getClass()), outbound.payload)
+                                                    .identify(messageID(outbound.payload))
+                                                    .correlate(outbound.correlation, outbound.replyTo)
+                                                    .compressAbove(compressionThreshold);
+
+                final String _message = _envelope.asString();
+
+                if (_envelope.bytesSaved() > 0)
+                    dispatcher.metrics(_envelope.focus).recordCompression(_envelope.bytesSaved());
+
+                final Optional<Durable> _durable = outbound.correlation == null ? durabilityOf(outbound.payload.getClass()) : Optional.empty();
+
+                debug("Publishing payload on " + outbound.channel + "\npayload: [" + _message + "]");
+
+                _messages.add(new MessageTransport.Message(outbound.channel, _message, _durable.map(Durable::maxLength).orElse(0L)));
             }
-            catch (ExecutionException ex)
+            catch (IllegalStateException ex)
             {
                 ex.printStackTrace();
-                System.err.println("Issue fetching focus for payload: " + payload.getClass().getName());
+                System.err.println("Issue fetching focus for payload: " + outbound.payload.getClass().getName());
                 System.err.println();
             }
-        });
+        }
 
-        return this;
+        transport.publish(priority, _messages);
+
+        return batch.size() - _messages.size();
+    }
+
+    /**
+     * @param channel the raw channel a payload is going out on
+     * @param payload the payload
+     * @return the queue it should wait in
+     */
+    private PublishQueue queueFor(String channel, Payload payload)
+    {
+        final RedisChannel _channel = RedisChannel.fromRaw(channel);
+        final Priority _priority = priorities.computeIfAbsent(payload.getClass(), type -> type.isAnnotationPresent(Focus.class) ? type.getAnnotation(Focus.class).priority() : Priority.NORMAL);
+
+        return publishQueues.get(_channel == null ? _priority : _priority.max(_channel.priority));
+    }
+
+    /**
+     * @param priority the priority of a queue
+     * @return whether any queue more urgent than
+     *         that one still has something to send
+     */
+    private boolean urgentWork(Priority priority)
+    {
+        for (PublishQueue queue : publishQueues.values())
+            if (queue.priority.ordinal() < priority.ordinal() && queue.busy())
+                return true;
+
+        return false;
+    }
+
+    /**
+     * @param payload a payload we're sending
+     * @return the ID to send it with; its idempotency
+     *         key if it has one, or something new
+     */
+    private String messageID(Payload payload)
+    {
+        final String _key = payload.idempotencyKey();
+
+        return _key != null ? _key : instanceID + "-" + Long.toString(messageCounter.incrementAndGet(), 36);
     }
 
     /**
@@ -220,10 +915,6 @@ public class RedisHandler
     {
         try
         {
-            // lazy init
-            if (hooks == null)
-                hooks = new ConcurrentHashMap<>();
-
             boolean _provisionedHook = false;
 
             for (Method method : object.getClass().getMethods())
@@ -233,15 +924,23 @@ public class RedisHandler
                 {
                     checkState(method.getParameterCount() == 1, "We only invoke with the provided payload; nothing else!");
                     checkState(Payload.class.isAssignableFrom(method.getParameterTypes()[0]), "The provided parameter isn't a payload!");
+                    checkState(method.getReturnType() == void.class || Payload.class.isAssignableFrom(method.getReturnType()), "Hooks may only return a payload (as a reply)");
 
                     final HookData _data = new HookData();
 
                     _data.possessor = object;
-                    _data.method = method;
                     _data.channel = method.isAnnotationPresent(FromChannel.class) ? method.getAnnotation(FromChannel.class).value().channel : RedisChannel.DEFAULT.channel;
-                    _data.focus = payloadFocusCache.get(_data.payloadType = method.getAnnotation(HandlesType.class).value());
+                    _data.focus = PayloadCodecs.focusOf(_data.payloadType = method.getAnnotation(HandlesType.class).value());
+                    _data.invoker = bindInvoker(object, method);
+                    _data.primaryThread = method.getAnnotation(HandlesType.class).primaryThread();
+
+                    final List<HookData> _existing = hooks.computeIfAbsent(_data.focus, key -> new CopyOnWriteArrayList<>());
 
-                    hooks.put(_data.focus, _data);
+                    // we only bind each message to a single type
+                    checkState(_existing.stream().allMatch(other -> other.payloadType == _data.payloadType),
+                               "Every hook for [" + _data.focus + "] must handle the same payload type");
+
+                    _existing.add(_data);
 
                     _provisionedHook = true;
                 }
@@ -258,6 +957,99 @@ public class RedisHandler
         return this;
     }
 
+    /**
+     * Figure out what type of payload we should
+     * be binding a message to.
+     *
+     * @param focus the focus of the message
+     * @param channel the channel we received it on
+     * @return the type, or {@code null} if nobody
+     *         on that channel is interested in it
+     */
+    private Class<? extends Payload> typeFor(String focus, String channel)
+    {
+        final List<HookData> _hooks = hooks.get(focus);
+
+        if (_hooks != null)
+            for (HookData data : _hooks)
+                if (data.channel.equals(channel))
+                    return data.payloadType;
+
+        return null;
+    }
+
+    /**
+     * Stop sending payloads to every hook
+     * that the provided object registered.
+     *
+     * @param object what was previously registered
+     * @return this handler
+     */
+    public RedisHandler unregisterHook(Object object)
+    {
+        hooks.values().forEach(list -> list.removeIf(data -> data.possessor == object));
+        return this;
+    }
+
+    /**
+     * Borrow a connection from our pool for
+     * the duration of the provided action.
+     *
+     * <p>
+     * This blocks on Redis; keep it off of
+     * the primary thread.
+     *
+     * @param action what to do with it
+     * @param <T> the type of result
+     * @return whatever the action returned
+     */
+    public <T> T resource(Function<Jedis, T> action)
+    {
+        readyCheck("borrow connection");
+        checkState(transport instanceof JedisTransport, "Borrowing a connection requires a live Redis instance");
+
+        return ((JedisTransport) transport).resource(action);
+    }
+
+    /**
+     * Borrow one of the connections set aside
+     * for caching & handing off accounts. Rather
+     * than waiting on a busy pool forever this
+     * throws after {@code account_pool_wait_ms};
+     * callers should fall back to Mongo.
+     *
+     * @param action what to do with it
+     * @param <T> the type of result
+     * @return whatever the action returned
+     */
+    public <T> T accountResource(Function<Jedis, T> action)
+    {
+        readyCheck("borrow connection");
+        checkState(transport instanceof JedisTransport, "Borrowing a connection requires a live Redis instance");
+
+        return ((JedisTransport) transport).accountResource(action);
+    }
+
+    /**
+     * Turns the method behind a hook into a
+     * {@link MethodHandle} that is already bound
+     * to the object holding it. We do this once
+     * when the hook is registered so that every
+     * payload after doesn't pay for reflection.
+     *
+     * @param possessor the object holding the hook
+     * @param method the method backing the hook
+     * @return the invoker
+     * @throws IllegalAccessException if we can't access that method
+     */
+    private static MethodHandle bindInvoker(Object possessor, Method method) throws IllegalAccessException
+    {
+        // public methods on non-public classes would otherwise be off limits
+        method.setAccessible(true);
+
+        return LOOKUP.unreflect(method).bindTo(possessor).asType(INVOKER_TYPE);
+    }
+
     /**
      * Verifies that this handler has been
      * started up before performing the
@@ -269,7 +1061,7 @@ public class RedisHandler
      */
     private void readyCheck(String operation)
     {
-        checkNotNull(pool, "Be sure to call RedisHandler#init before performing: [" + operation + "]");
+        checkNotNull(transport, "Be sure to call RedisHandler#init before performing: [" + operation + "]");
     }
 
     /**
@@ -292,8 +1084,8 @@ public class RedisHandler
         /** instance of the item holding this hook */
         Object possessor;
 
-        /** Java method backing this hook */
-        Method method;
+        /** the method backing this hook; bound to {@link #possessor} */
+        MethodHandle invoker;
 
         /** the redis channel we're looking for */
         String channel;
@@ -303,6 +1095,103 @@ public class RedisHandler
 
         /** the payload type this hook is processing */
         Class<? extends Payload> payloadType;
+
+        /** whether this hook has to run on the primary thread */
+        boolean primaryThread;
+
+        /**
+         * Hand the provided payload off to this hook.
+         * A hook blowing up shouldn't take any of
+         * the other hooks down with it.
+         *
+         * @param payload the payload
+         * @return the reply from this hook; {@code null} if none
+         */
+        Object invoke(Payload payload)
+        {
+            try
+            {
+                return (Object) invoker.invokeExact(payload);
+            }
+            catch (Throwable ex)
+            {
+                ex.printStackTrace();
+                System.err.println("Issue occurred whilst invoking the Redis hook in [" + possessor.getClass().getName() + "] for: " + focus);
+                System.err.println();
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * A request of ours that is waiting on replies
+     *
+     * @param <R> the type of reply
+     */
+    private static class PendingRequest<R extends Payload>
+    {
+        /** the type of reply we're expecting */
+        final Class<R> type;
+
+        /** whether we collect every reply, or just take the first */
+        final boolean many;
+
+        /** completed with the first reply */
+        final CompletableFuture<R> first = new CompletableFuture<>();
+
+        /** completed with every reply once our window is up */
+        final CompletableFuture<List<R>> all = new CompletableFuture<>();
+
+        /** replies we've collected so far */
+        final List<R> replies = Collections.synchronizedList(Lists.newArrayList());
+
+        PendingRequest(Class<R> type, boolean many)
+        {
+            this.type = type;
+            this.many = many;
+        }
+
+        /**
+         * @param reply a reply to this request
+         */
+        void accept(Payload reply)
+        {
+            if (!type.isInstance(reply))
+                return;
+
+            if (many)
+                replies.add(type.cast(reply));
+            else
+                first.complete(type.cast(reply));
+        }
+
+        /**
+         * Our time is up
+         */
+        void expire()
+        {
+            if (many)
+            {
+                synchronized (replies)
+                {
+                    all.complete(Lists.newArrayList(replies));
+                }
+            }
+            else
+            {
+                first.completeExceptionally(new TimeoutException("No reply received for " + type.getSimpleName()));
+            }
+        }
+
+        /**
+         * @param ex why we couldn't go through with this
+         */
+        void fail(Throwable ex)
+        {
+            first.completeExceptionally(ex);
+            all.completeExceptionally(ex);
+        }
     }
 
 }
@@ -0,0 +1,352 @@
+package com.hyleria.common.redis;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Owns our one subscribing connection to Redis.
+ *
+ * <p>
+ * Channels & patterns may be added or removed at
+ * any time; if we're connected the change is sent
+ * over the live connection, and either way it'll
+ * be applied whenever we (re)connect. Should the
+ * connection drop we keep trying to get it back,
+ * backing off (w/ some jitter, so a whole network
+ * doesn't hit Redis at the same moment) between attempts.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/19/2017 (1:22 PM)
+ */
+class SubscriptionManager
+{
+
+    /** the shortest we'll wait before reconnecting */
+    private static final long MIN_BACKOFF_MILLIS = 250;
+
+    /** the longest we'll wait before reconnecting */
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    /** where we get our connection from */
+    private final JedisPool pool;
+
+    /** handles every message we receive | (channel, message) */
+    private final BiConsumer<String, String> handler;
+
+    /** the raw channels we're listening to */
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+    /** the patterns we're listening to */
+    private final Set<String> patterns = ConcurrentHashMap.newKeySet();
+
+    /** the thread blocking on our subscription */
+    private Thread thread;
+
+    /** the listener on the live connection; {@code null} when we're not connected */
+    private volatile Listener listener;
+
+    /** the connection we're currently subscribed on */
+    private volatile Jedis connection;
+
+    /** what we're up to */
+    private volatile ConnectionState state = ConnectionState.DISCONNECTED;
+
+    /** when we last connected */
+    private volatile long connectedAt;
+
+    /** how many times we've had to reconnect */
+    private final AtomicLong reconnects = new AtomicLong();
+
+    /** whether or not we should stay connected */
+    private volatile boolean running;
+
+    /**
+     * @param pool where we get our connection from
+     * @param handler handles every message we receive
+     * @param bootstrap a channel we'll always be subscribed to.
+     *                  Redis needs at least one for us to be
+     *                  in "subscribed" mode to begin with.
+     */
+    SubscriptionManager(JedisPool pool, BiConsumer<String, String> handler, String bootstrap)
+    {
+        this.pool = pool;
+        this.handler = handler;
+        this.channels.add(bootstrap);
+    }
+
+    /**
+     * Start listening; does nothing if we already are.
+     */
+    synchronized void start()
+    {
+        if (running)
+            return;
+
+        running = true;
+
+        thread = new Thread(this::run, "Hyleria Redis Pub/Sub");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Drop our subscription, and stop reconnecting
+     */
+    synchronized void shutdown()
+    {
+        running = false;
+        state = ConnectionState.CLOSED;
+
+        final Listener _listener = listener;
+
+        try
+        {
+            if (_listener != null && _listener.isSubscribed())
+            {
+                _listener.unsubscribe();
+                _listener.punsubscribe();
+            }
+        }
+        catch (Exception ignored)
+        {
+            // we're tearing everything down anyways
+        }
+
+        final Jedis _connection = connection;
+
+        if (_connection != null)
+            _connection.close();
+
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    /**
+     * @param add the channels to start listening to
+     */
+    void subscribe(String... add)
+    {
+        for (String channel : add)
+            channels.add(channel);
+
+        apply(listener -> listener.subscribe(add));
+    }
+
+    /**
+     * @param remove the channels to stop listening to
+     */
+    void unsubscribe(String... remove)
+    {
+        for (String channel : remove)
+            channels.remove(channel);
+
+        apply(listener -> listener.unsubscribe(remove));
+    }
+
+    /**
+     * @param add the patterns to start listening to
+     */
+    void psubscribe(String... add)
+    {
+        for (String pattern : add)
+            patterns.add(pattern);
+
+        apply(listener -> listener.psubscribe(add));
+    }
+
+    /**
+     * @param remove the patterns to stop listening to
+     */
+    void punsubscribe(String... remove)
+    {
+        for (String pattern : remove)
+            patterns.remove(pattern);
+
+        apply(listener -> listener.punsubscribe(remove));
+    }
+
+    /**
+     * @return the state of our connection
+     */
+    ConnectionState state()
+    {
+        return state;
+    }
+
+    /**
+     * @return how many times we've reconnected
+     */
+    long reconnects()
+    {
+        return reconnects.get();
+    }
+
+    /**
+     * @return when we last connected (epoch ms); {@code 0} if never
+     */
+    long connectedAt()
+    {
+        return connectedAt;
+    }
+
+    /**
+     * @return how many channels we're listening to
+     */
+    int channelCount()
+    {
+        return channels.size();
+    }
+
+    /**
+     * @return how many patterns we're listening to
+     */
+    int patternCount()
+    {
+        return patterns.size();
+    }
+
+    /**
+     * Send a change over the live connection, if
+     * we have one. If not, it'll be picked up when
+     * we connect since our sets are already updated.
+     *
+     * @param change the change
+     */
+    private void apply(Consumer<Listener> change)
+    {
+        final Listener _listener = listener;
+
+        if (_listener == null || !_listener.isSubscribed())
+            return;
+
+        try
+        {
+            change.accept(_listener);
+        }
+        catch (Exception ex)
+        {
+            // the connection is on its way out; we'll catch up on reconnect
+            System.err.println("Couldn't update Redis subscription on the live connection: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * What our subscription thread runs. Each pass
+     * around the loop is one connection.
+     */
+    private void run()
+    {
+        int _failures = 0;
+
+        while (running)
+        {
+            state = reconnects.get() == 0 && _failures == 0 ? ConnectionState.CONNECTING : ConnectionState.RECONNECTING;
+
+            try (Jedis _jedis = pool.getResource())
+            {
+                final Listener _listener = new Listener();
+
+                connection = _jedis;
+                listener = _listener;
+
+                // this blocks for as long as we're connected
+                _jedis.subscribe(_listener, channels.toArray(new String[0]));
+            }
+            catch (Exception ex)
+            {
+                if (running)
+                {
+                    System.err.println("Lost (or couldn't establish) our Redis subscription: " + ex.getMessage());
+                }
+            }
+            finally
+            {
+                listener = null;
+                connection = null;
+            }
+
+            if (!running)
+                break;
+
+            // we were connected for a bit; start the back off over
+            if (state == ConnectionState.CONNECTED)
+            {
+                _failures = 0;
+                reconnects.incrementAndGet();
+            }
+
+            state = ConnectionState.RECONNECTING;
+
+            try
+            {
+                Thread.sleep(backoff(_failures++));
+            }
+            catch (InterruptedException ex)
+            {
+                break;
+            }
+        }
+
+        state = ConnectionState.CLOSED;
+    }
+
+    /**
+     * @param failures how many attempts in a row have failed
+     * @return how long to wait before our next attempt
+     */
+    static long backoff(int failures)
+    {
+        final long _ceiling = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(failures, 16));
+
+        // "equal jitter"; never less than half of the ceiling
+        return _ceiling / 2 + ThreadLocalRandom.current().nextLong(_ceiling / 2 + 1);
+    }
+
+    /**
+     * What's hooked up to our live connection
+     */
+    private class Listener extends JedisPubSub
+    {
+
+        @Override
+        public void onSubscribe(String channel, int subscribedChannels)
+        {
+            if (state == ConnectionState.CONNECTED)
+                return;
+
+            state = ConnectionState.CONNECTED;
+            connectedAt = System.currentTimeMillis();
+
+            // catch anything added while we were connecting
+            subscribe(channels.toArray(new String[0]));
+
+            // patterns need their own command; send them along
+            // now that we're actually in "subscribed" mode
+            if (!patterns.isEmpty())
+                psubscribe(patterns.toArray(new String[0]));
+        }
+
+        @Override
+        public void onMessage(String channel, String message)
+        {
+            handler.accept(channel, message);
+        }
+
+        @Override
+        public void onPMessage(String pattern, String channel, String message)
+        {
+            // the hooks care about where it was sent, not what matched it
+            handler.accept(channel, message);
+        }
+
+    }
+
+}
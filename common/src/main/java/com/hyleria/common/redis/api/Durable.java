@@ -0,0 +1,39 @@
+package com.hyleria.common.redis.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link Payload} as one that must not
+ * be lost should a server be restarting when
+ * it's sent. Rather than pub/sub these go through
+ * a Redis Stream; every server has its own consumer
+ * group on it, and acknowledges each payload once
+ * its hooks have run. Anything left unacknowledged
+ * is replayed when the server comes back.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/22/2017 (11:10 AM)
+ */
+@Target ( ElementType.TYPE )
+@Retention ( RetentionPolicy.RUNTIME )
+public @interface Durable
+{
+
+    /**
+     * @return roughly how many payloads we keep
+     *         around in the stream; it's trimmed
+     *         back to this as each one is added
+     */
+    long maxLength() default 10_000;
+
+    /**
+     * @return how old (in ms) a payload may be before
+     *         it's no longer worth handling; {@code 0}
+     *         to always handle it no matter what
+     */
+    long maxAgeMillis() default 0;
+
+}
@@ -21,4 +21,10 @@ public @interface Focus
      */
     String value();
 
+    /**
+     * @return how urgently payloads w/ this
+     *         focus should be sent out
+     */
+    Priority priority() default Priority.NORMAL;
+
 }
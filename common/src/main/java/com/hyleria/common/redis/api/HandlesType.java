@@ -21,4 +21,13 @@ public @interface HandlesType
      */
     Class<? extends Payload> value();
 
+    /**
+     * @return whether this hook has to be run on
+     *         the server's primary thread. only
+     *         honored when the platform provided an
+     *         executor for that thread; otherwise the
+     *         hook runs in its regular dispatch lane.
+     */
+    boolean primaryThread() default false;
+
 }
@@ -1,5 +1,7 @@
 package com.hyleria.common.redis.api;
 
+import com.hyleria.common.json.JSONBuilder;
+import com.hyleria.common.redis.Envelope;
 import com.hyleria.common.redis.RedisChannel;
 import com.hyleria.common.redis.RedisHandler;
 import org.json.simple.JSONObject;
@@ -16,9 +18,17 @@ public interface Payload
      * JSON object that we may then
      * send over the provided channel
      *
+     * <p>
+     * Payloads compiled w/ our annotation processor
+     * never have this called while being sent; see
+     * {@link com.hyleria.common.redis.codec.PayloadCodecs}.
+     *
      * @return the payload as JSON
      */
-    JSONObject asJSON();
+    default JSONObject asJSON()
+    {
+        return JSONBuilder.builder().addAllFields(this).asJSON();
+    }
 
     /**
      * @return the Redis channel this payload
@@ -28,22 +38,28 @@ public interface Payload
      */
     RedisChannel channel();
 
+    /**
+     * A key that stays the same every time this
+     * payload is sent; i.e. when it's retried.
+     * Receivers drop anything w/ a key they've
+     * seen recently, so only return one if acting
+     * on this twice would be a problem.
+     *
+     * @return the key, or {@code null} to have
+     *         every send treated as its own message
+     */
+    default String idempotencyKey()
+    {
+        return null;
+    }
+
     /**
      * @param focus the {@code focus} of this payload
      * @return the object as a {@link String}
      */
     default String asString(String focus)
     {
-        final JSONObject _json = new JSONObject();
-
-        _json.put("focus", focus);
-
-        final JSONObject _payload = this.asJSON();
-
-        if (_payload != null)
-            _json.put("payload", _payload);
-
-        return _json.toJSONString();
+        return new Envelope(focus, this).identify(idempotencyKey()).asString();
     }
 
     /**
@@ -0,0 +1,47 @@
+package com.hyleria.common.redis.api;
+
+/**
+ * How urgent a payload is. Each class has an
+ * outgoing queue, writer threads, and connections
+ * all to itself; so a pile of bulk traffic never
+ * holds up the things that actually matter.
+ *
+ * <p>
+ * Set via {@link Focus#priority()}, or for a
+ * whole channel on {@link com.hyleria.common.redis.RedisChannel}.
+ * When both are set the more urgent one wins.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/24/2017 (2:10 PM)
+ */
+public enum Priority
+{
+
+    /**
+     * Control traffic; i.e. moving players around,
+     * or a server going down. Always sent ahead
+     * of {@link #BULK} payloads.
+     */
+    HIGH,
+
+    /**
+     * Everything else
+     */
+    NORMAL,
+
+    /**
+     * Frequent payloads where running a little
+     * late isn't a big deal; i.e. chat, heartbeats
+     */
+    BULK;
+
+    /**
+     * @param other another priority
+     * @return whichever of the two is more urgent
+     */
+    public Priority max(Priority other)
+    {
+        return other.ordinal() < ordinal() ? other : this;
+    }
+
+}
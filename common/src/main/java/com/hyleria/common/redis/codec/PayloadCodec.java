@@ -0,0 +1,49 @@
+package com.hyleria.common.redis.codec;
+
+import com.google.gson.stream.JsonReader;
+import com.hyleria.common.redis.api.Payload;
+
+import java.io.IOException;
+
+/**
+ * Writes & reads a single type of {@link Payload}
+ * w/o any reflection. Implementations are generated
+ * at compile time, and found via {@link PayloadCodecs}.
+ *
+ * @param <T> the type of payload
+ * @author Ben (OutdatedVersion)
+ * @since May/23/2017 (1:20 PM)
+ */
+public interface PayloadCodec<T extends Payload>
+{
+
+    /**
+     * @return the focus of the payload; see {@link com.hyleria.common.redis.api.Focus}
+     */
+    String focus();
+
+    /**
+     * @return the type of payload
+     */
+    Class<T> type();
+
+    /**
+     * Write the provided payload out as
+     * a JSON object.
+     *
+     * @param payload the payload
+     * @param out where to write it
+     */
+    void write(T payload, StringBuilder out);
+
+    /**
+     * Read a payload from the JSON object
+     * the provided reader is positioned at.
+     *
+     * @param in the reader
+     * @return the payload
+     * @throws IOException if the JSON is malformed
+     */
+    T read(JsonReader in) throws IOException;
+
+}
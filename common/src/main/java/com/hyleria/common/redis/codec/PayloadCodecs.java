@@ -0,0 +1,218 @@
+package com.hyleria.common.redis.codec;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.hyleria.common.redis.api.Focus;
+import com.hyleria.common.redis.api.Payload;
+import org.json.simple.JSONObject;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Registry of every generated {@link PayloadCodec}.
+ * Filled once, when this class is first touched,
+ * from the service file our annotation processor
+ * writes out; after that it's just map lookups.
+ *
+ * <p>
+ * Payloads that weren't compiled w/ the processor
+ * (i.e. ones from other modules) still work; they
+ * just fall back to {@link Payload#asJSON()} & Gson.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/23/2017 (1:32 PM)
+ */
+public final class PayloadCodecs
+{
+
+    /** type of payload -> its codec */
+    private static final Map<Class<?>, PayloadCodec<?>> BY_TYPE;
+
+    /** focus -> the codec for it */
+    private static final Map<String, PayloadCodec<?>> BY_FOCUS;
+
+    /** the focus of payloads w/o a codec; resolved once per class */
+    private static final ClassValue<String> FALLBACK_FOCUS = new ClassValue<String>()
+    {
+        @Override
+        protected String computeValue(Class<?> type)
+        {
+            checkState(type.isAnnotationPresent(Focus.class), "Invalid payload! Missing Focus annotation.");
+
+            return type.getAnnotation(Focus.class).value();
+        }
+    };
+
+    static
+    {
+        final ImmutableMap.Builder<Class<?>, PayloadCodec<?>> _byType = ImmutableMap.builder();
+        final ImmutableMap.Builder<String, PayloadCodec<?>> _byFocus = ImmutableMap.builder();
+
+        for (PayloadCodec<?> codec : ServiceLoader.load(PayloadCodec.class, PayloadCodecs.class.getClassLoader()))
+        {
+            _byType.put(codec.type(), codec);
+            _byFocus.put(codec.focus(), codec);
+        }
+
+        BY_TYPE = _byType.build();
+        BY_FOCUS = _byFocus.build();
+    }
+
+    private PayloadCodecs()
+    {
+    }
+
+    /**
+     * @param type the type of payload
+     * @param <T> the type of payload
+     * @return its codec, or {@code null} if it doesn't have one
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static <T extends Payload> PayloadCodec<T> forType(Class<T> type)
+    {
+        return (PayloadCodec<T>) BY_TYPE.get(type);
+    }
+
+    /**
+     * @param focus a focus
+     * @return the codec for it, or {@code null} if there isn't one
+     */
+    public static PayloadCodec<?> forFocus(String focus)
+    {
+        return BY_FOCUS.get(focus);
+    }
+
+    /**
+     * @param type the type of payload
+     * @return the focus of that payload
+     * @throws IllegalStateException if it's missing its {@link Focus}
+     */
+    public static String focusOf(Class<? extends Payload> type)
+    {
+        final PayloadCodec<?> _codec = BY_TYPE.get(type);
+
+        return _codec != null ? _codec.focus() : FALLBACK_FOCUS.get(type);
+    }
+
+    /**
+     * Write the provided payload out as JSON
+     *
+     * @param payload the payload
+     * @param out where to write it
+     * @return whether we wrote anything
+     */
+    @SuppressWarnings ( "unchecked" )
+    public static boolean write(Payload payload, StringBuilder out)
+    {
+        final PayloadCodec<Payload> _codec = (PayloadCodec<Payload>) BY_TYPE.get(payload.getClass());
+
+        if (_codec != null)
+        {
+            _codec.write(payload, out);
+            return true;
+        }
+
+        final JSONObject _json = payload.asJSON();
+
+        if (_json == null)
+            return false;
+
+        out.append(_json.toJSONString());
+        return true;
+    }
+
+    /**
+     * Used by our generated codecs; appends
+     * the provided value as a JSON string.
+     *
+     * @param out where to write it
+     * @param value the value; not {@code null}
+     */
+    public static void string(StringBuilder out, String value)
+    {
+        out.append('"').append(JSONObject.escape(value)).append('"');
+    }
+
+    /**
+     * Used by our generated codecs; appends the
+     * provided number. NaN & infinity aren't valid
+     * JSON numbers, so those are written as strings.
+     *
+     * @param out where to write it
+     * @param value the value
+     */
+    public static void number(StringBuilder out, double value)
+    {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            string(out, Double.toString(value));
+        else
+            out.append(value);
+    }
+
+    /**
+     * @param out where to write it
+     * @param value the value
+     * @see #number(StringBuilder, double)
+     */
+    public static void number(StringBuilder out, float value)
+    {
+        if (Float.isNaN(value) || Float.isInfinite(value))
+            string(out, Float.toString(value));
+        else
+            out.append(value);
+    }
+
+    /**
+     * Used by our generated codecs; the other
+     * half of {@link #number(StringBuilder, double)}
+     *
+     * @param in the reader
+     * @return the next number
+     * @throws IOException if the JSON is malformed
+     */
+    public static double nextDouble(JsonReader in) throws IOException
+    {
+        // the reader refuses NaN & infinity unless it's lenient
+        return in.peek() == JsonToken.STRING ? Double.parseDouble(in.nextString()) : in.nextDouble();
+    }
+
+    /**
+     * Used by our generated codecs
+     *
+     * @param in the reader
+     * @return the next string, or {@code null}
+     * @throws IOException if the JSON is malformed
+     */
+    public static String nextString(JsonReader in) throws IOException
+    {
+        if (in.peek() == JsonToken.NULL)
+        {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextString();
+    }
+
+    /**
+     * Used by our generated codecs
+     *
+     * @param in the reader
+     * @return whether the next value is {@code null}; if so it's consumed
+     * @throws IOException if the JSON is malformed
+     */
+    public static boolean nextIsNull(JsonReader in) throws IOException
+    {
+        if (in.peek() != JsonToken.NULL)
+            return false;
+
+        in.nextNull();
+        return true;
+    }
+
+}
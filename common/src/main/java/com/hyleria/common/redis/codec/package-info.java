@@ -0,0 +1,9 @@
+/**
+ * Reflection-free (de)serialization for our
+ * {@link com.hyleria.common.redis.api.Payload}s.
+ * The codecs themselves are generated at compile
+ * time; see {@link com.hyleria.common.redis.codec.processor.PayloadCodecProcessor}.
+ *
+ * @since May/23/2017 (1:15 PM)
+ */
+package com.hyleria.common.redis.codec;
@@ -0,0 +1,649 @@
+package com.hyleria.common.redis.codec.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@code PayloadCodec} for every class
+ * annotated w/ {@code Focus} that implements {@code Payload}.
+ * The codecs are plain, straight-line code: no reflection,
+ * and no lookups beyond a switch on the field name.
+ *
+ * <p>
+ * Every codec we generate is listed in a service file
+ * so {@code PayloadCodecs} may find them at runtime.
+ *
+ * <p>
+ * This processor intentionally only refers to the types
+ * it works with by name; it's compiled on its own, before
+ * anything else in this module exists.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/23/2017 (1:50 PM)
+ */
+@SupportedAnnotationTypes ( PayloadCodecProcessor.FOCUS )
+public class PayloadCodecProcessor extends AbstractProcessor
+{
+
+    /** the annotation we're looking for */
+    static final String FOCUS = "com.hyleria.common.redis.api.Focus";
+
+    /** what each annotated class must implement */
+    private static final String PAYLOAD = "com.hyleria.common.redis.api.Payload";
+
+    /** fields w/ this are left alone */
+    private static final String EXCLUDE = "com.hyleria.common.json.Exclude";
+
+    /** renames a field */
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+    /** where we list our codecs */
+    private static final String SERVICE_FILE = "META-INF/services/com.hyleria.common.redis.codec.PayloadCodec";
+
+    /** boxed types we handle directly | type -> how it's read */
+    private static final String[][] BOXED = {
+            { "java.lang.Integer", "in.nextInt()" },
+            { "java.lang.Long", "in.nextLong()" },
+            { "java.lang.Double", "PayloadCodecs.nextDouble(in)" },
+            { "java.lang.Boolean", "in.nextBoolean()" },
+            { "java.lang.Short", "(short) in.nextInt()" },
+            { "java.lang.Byte", "(byte) in.nextInt()" },
+            { "java.lang.Float", "(float) PayloadCodecs.nextDouble(in)" }
+    };
+
+    /** collections we handle directly | type -> what we create when reading one */
+    private static final String[][] COLLECTIONS = {
+            { "java.util.Collection", "java.util.ArrayList" },
+            { "java.util.List", "java.util.ArrayList" },
+            { "java.util.ArrayList", "java.util.ArrayList" },
+            { "java.util.Set", "java.util.LinkedHashSet" },
+            { "java.util.LinkedHashSet", "java.util.LinkedHashSet" },
+            { "java.util.HashSet", "java.util.HashSet" }
+    };
+
+    /** every codec we've generated; sorted so the service file is stable */
+    private final Set<String> generated = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round)
+    {
+        if (round.processingOver())
+        {
+            writeServiceFile();
+            return false;
+        }
+
+        final TypeElement _focus = processingEnv.getElementUtils().getTypeElement(FOCUS);
+        final TypeElement _payload = processingEnv.getElementUtils().getTypeElement(PAYLOAD);
+
+        if (_focus == null || _payload == null)
+            return false;
+
+        for (Element element : round.getElementsAnnotatedWith(_focus))
+        {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT))
+                continue;
+
+            final TypeElement _type = (TypeElement) element;
+
+            if (!processingEnv.getTypeUtils().isAssignable(_type.asType(), _payload.asType()))
+                continue;
+
+            try
+            {
+                generate(_type);
+            }
+            catch (InvalidPayloadException ex)
+            {
+                error(ex.getMessage(), ex.element);
+            }
+            catch (IOException ex)
+            {
+                error("Couldn't write codec: " + ex.getMessage(), _type);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Write out the codec for the provided payload
+     *
+     * @param type the payload
+     * @throws IOException if we can't write the file
+     */
+    private void generate(TypeElement type) throws IOException
+    {
+        final String _package = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final String _payload = type.getQualifiedName().toString();
+        final String _codec = codecName(type, _package);
+        final String _focus = String.valueOf(annotationValue(type, FOCUS));
+
+        requireConstructor(type);
+
+        final List<CodecField> _fields = fields(type);
+        final boolean _usesGson = _fields.stream().anyMatch(field -> field.kind == FieldKind.GSON);
+
+        final StringBuilder _src = new StringBuilder();
+
+        _src.append("package ").append(_package).append(";\n\n")
+            .append("import com.google.gson.stream.JsonReader;\n")
+            .append("import com.hyleria.common.redis.codec.PayloadCodec;\n")
+            .append("import com.hyleria.common.redis.codec.PayloadCodecs;\n\n")
+            .append("import java.io.IOException;\n\n")
+            .append("/**\n")
+            .append(" * Generated by PayloadCodecProcessor for {@link ").append(_payload).append("}; do not edit.\n")
+            .append(" */\n")
+            .append("public final class ").append(_codec).append(" implements PayloadCodec<").append(_payload).append(">\n")
+            .append("{\n\n");
+
+        if (_usesGson)
+        {
+            _src.append("    private static final com.google.gson.Gson GSON = new com.google.gson.Gson();\n\n");
+
+            for (CodecField field : _fields)
+                if (field.kind == FieldKind.GSON)
+                    _src.append("    private static final java.lang.reflect.Type TYPE_").append(field.name)
+                        .append(" = new com.google.gson.reflect.TypeToken<").append(field.type).append(">() { }.getType();\n\n");
+        }
+
+        _src.append("    @Override\n")
+            .append("    public String focus()\n")
+            .append("    {\n")
+            .append("        return ").append(literal(_focus)).append(";\n")
+            .append("    }\n\n")
+            .append("    @Override\n")
+            .append("    public Class<").append(_payload).append("> type()\n")
+            .append("    {\n")
+            .append("        return ").append(_payload).append(".class;\n")
+            .append("    }\n\n");
+
+        // writer
+        _src.append("    @Override\n")
+            .append("    public void write(").append(_payload).append(" payload, StringBuilder out)\n")
+            .append("    {\n")
+            .append("        final int _start = out.length();\n")
+            .append("        out.append('{');\n");
+
+        for (CodecField field : _fields)
+        {
+            final String _value = "payload." + field.name;
+            final String _indent = field.kind.primitive ? "        " : "            ";
+
+            _src.append('\n');
+
+            if (!field.kind.primitive)
+                _src.append("        if (").append(_value).append(" != null)\n")
+                    .append("        {\n");
+
+            _src.append(_indent).append("if (out.length() > _start + 1) out.append(',');\n")
+                .append(_indent).append("out.append(").append(literal(literal(field.jsonName) + ":")).append(");\n");
+
+            switch (field.kind)
+            {
+                case COLLECTION:
+                    final CodecField _element = field.element;
+
+                    _src.append(_indent).append("out.append('[');\n\n")
+                        .append(_indent).append("for (").append(_element.type).append(" _element : ").append(_value).append(")\n")
+                        .append(_indent).append("{\n")
+                        .append(_indent).append("    if (out.charAt(out.length() - 1) != '[') out.append(',');\n")
+                        .append(_indent).append("    if (_element == null) out.append(\"null\");\n")
+                        .append(_indent).append("    else ").append(writeValue(_element, "_element")).append('\n')
+                        .append(_indent).append("}\n\n")
+                        .append(_indent).append("out.append(']');\n");
+                    break;
+
+                case GSON:
+                    _src.append(_indent).append("out.append(GSON.toJson(").append(_value).append(", TYPE_").append(field.name).append("));\n");
+                    break;
+
+                default:
+                    _src.append(_indent).append(writeValue(field, _value)).append('\n');
+            }
+
+            if (!field.kind.primitive)
+                _src.append("        }\n");
+        }
+
+        _src.append("\n        out.append('}');\n")
+            .append("    }\n\n");
+
+        // reader
+        _src.append("    @Override\n")
+            .append("    public ").append(_payload).append(" read(JsonReader in) throws IOException\n")
+            .append("    {\n")
+            .append("        final ").append(_payload).append(" _payload = new ").append(_payload).append("();\n\n")
+            .append("        in.beginObject();\n\n")
+            .append("        while (in.hasNext())\n")
+            .append("        {\n")
+            .append("            switch (in.nextName())\n")
+            .append("            {\n");
+
+        for (CodecField field : _fields)
+        {
+            final String _target = "_payload." + field.name;
+
+            _src.append("                case ").append(literal(field.jsonName)).append(":\n");
+
+            switch (field.kind)
+            {
+                case STRING:
+                    _src.append("                    ").append(_target).append(" = PayloadCodecs.nextString(in);\n");
+                    break;
+
+                case COLLECTION:
+                    final CodecField _element = field.element;
+
+                    _src.append("                    if (!PayloadCodecs.nextIsNull(in))\n")
+                        .append("                    {\n")
+                        .append("                        final ").append(field.type).append(" _").append(field.name)
+                        .append(" = new ").append(field.implementation).append("<>();\n\n")
+                        .append("                        in.beginArray();\n\n")
+                        .append("                        while (in.hasNext())\n")
+                        .append("                            _").append(field.name).append(".add(PayloadCodecs.nextIsNull(in) ? null : ")
+                        .append(readValue(_element)).append(");\n\n")
+                        .append("                        in.endArray();\n\n")
+                        .append("                        ").append(_target).append(" = _").append(field.name).append(";\n")
+                        .append("                    }\n");
+                    break;
+
+                case GSON:
+                    _src.append("                    ").append(_target).append(" = GSON.fromJson(in, TYPE_").append(field.name).append(");\n");
+                    break;
+
+                default:
+                    _src.append("                    if (!PayloadCodecs.nextIsNull(in))\n")
+                        .append("                        ").append(_target).append(" = ").append(readValue(field)).append(";\n");
+            }
+
+            _src.append("                    break;\n\n");
+        }
+
+        _src.append("                default:\n")
+            .append("                    in.skipValue();\n")
+            .append("            }\n")
+            .append("        }\n\n")
+            .append("        in.endObject();\n\n")
+            .append("        return _payload;\n")
+            .append("    }\n\n")
+            .append("}\n");
+
+        final String _qualified = _package.isEmpty() ? _codec : _package + "." + _codec;
+        final JavaFileObject _file = processingEnv.getFiler().createSourceFile(_qualified, type);
+
+        try (Writer writer = _file.openWriter())
+        {
+            writer.write(_src.toString());
+        }
+
+        generated.add(_qualified);
+    }
+
+    /**
+     * @param field a field (or collection element) of a simple kind
+     * @param value the expression holding its value; never {@code null}
+     * @return the statement writing that value out
+     */
+    private static String writeValue(CodecField field, String value)
+    {
+        switch (field.kind)
+        {
+            case STRING:
+                return "PayloadCodecs.string(out, " + value + ");";
+
+            case UUID:
+                return "PayloadCodecs.string(out, " + value + ".toString());";
+
+            case ENUM:
+                return "PayloadCodecs.string(out, " + value + ".name());";
+
+            default:
+                // NaN & infinity aren't valid JSON numbers
+                return field.decimal ? "PayloadCodecs.number(out, " + value + ");" : "out.append(" + value + ");";
+        }
+    }
+
+    /**
+     * @param field a field (or collection element) of a simple kind
+     * @return the expression reading its (non-null) value
+     */
+    private static String readValue(CodecField field)
+    {
+        switch (field.kind)
+        {
+            case STRING:
+                return "in.nextString()";
+
+            case UUID:
+                return "java.util.UUID.fromString(in.nextString())";
+
+            case ENUM:
+                return field.type + ".valueOf(in.nextString())";
+
+            default:
+                return field.reader;
+        }
+    }
+
+    /**
+     * List every codec we generated so
+     * they may be found at runtime
+     */
+    private void writeServiceFile()
+    {
+        if (generated.isEmpty())
+            return;
+
+        try
+        {
+            final FileObject _file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+
+            try (Writer writer = _file.openWriter())
+            {
+                for (String codec : generated)
+                    writer.write(codec + "\n");
+            }
+        }
+        catch (IOException ex)
+        {
+            error("Couldn't write " + SERVICE_FILE + ": " + ex.getMessage(), null);
+        }
+    }
+
+    /**
+     * @param type the payload
+     * @return every field that makes up the payload;
+     *         the same set {@code Class#getFields()} gives us
+     */
+    private List<CodecField> fields(TypeElement type)
+    {
+        final List<CodecField> _fields = new ArrayList<>();
+        TypeElement _current = type;
+
+        while (_current != null && !_current.getQualifiedName().contentEquals("java.lang.Object"))
+        {
+            for (VariableElement field : ElementFilter.fieldsIn(_current.getEnclosedElements()))
+            {
+                final Set<Modifier> _modifiers = field.getModifiers();
+
+                if (!_modifiers.contains(Modifier.PUBLIC) || _modifiers.contains(Modifier.STATIC) || annotation(field, EXCLUDE) != null)
+                    continue;
+
+                if (_modifiers.contains(Modifier.FINAL))
+                    throw new InvalidPayloadException("Payload fields can't be final; exclude it or drop the modifier", field);
+
+                _fields.add(new CodecField(field));
+            }
+
+            final TypeMirror _super = _current.getSuperclass();
+            _current = _super.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) _super).asElement() : null;
+        }
+
+        return _fields;
+    }
+
+    /**
+     * Our codecs create each payload w/ a no-args
+     * constructor; make sure there is one we can use.
+     *
+     * @param type the payload
+     */
+    private static void requireConstructor(TypeElement type)
+    {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements()))
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE))
+                return;
+
+        throw new InvalidPayloadException("Payloads need a non-private, no-args constructor for their codec", type);
+    }
+
+    /**
+     * @param type the payload
+     * @param pkg its package
+     * @return the name of its codec
+     */
+    private static String codecName(TypeElement type, String pkg)
+    {
+        final String _name = type.getQualifiedName().toString();
+        final String _relative = pkg.isEmpty() ? _name : _name.substring(pkg.length() + 1);
+
+        // nested payloads; Outer.Inner -> Outer_InnerCodec
+        return _relative.replace('.', '_') + "Codec";
+    }
+
+    /**
+     * @param element an element
+     * @param annotation the annotation's name
+     * @return the annotation on that element, or {@code null}
+     */
+    private static AnnotationMirror annotation(Element element, String annotation)
+    {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+                return mirror;
+
+        return null;
+    }
+
+    /**
+     * @param element an element
+     * @param annotation the annotation's name
+     * @return that annotation's {@code value}, or {@code null}
+     */
+    private static Object annotationValue(Element element, String annotation)
+    {
+        final AnnotationMirror _mirror = annotation(element, annotation);
+
+        if (_mirror == null)
+            return null;
+
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : _mirror.getElementValues().entrySet())
+            if (entry.getKey().getSimpleName().contentEquals("value"))
+                return entry.getValue().getValue();
+
+        return null;
+    }
+
+    /**
+     * @param value some text
+     * @return that text as a Java string literal
+     */
+    private static String literal(String value)
+    {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * @param message what went wrong
+     * @param element where it went wrong
+     */
+    private void error(String message, Element element)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * How we (de)serialize a field
+     */
+    private enum FieldKind
+    {
+        PRIMITIVE(true),
+        BOXED(false),
+        STRING(false),
+        UUID(false),
+        ENUM(false),
+        COLLECTION(false),
+        GSON(false);
+
+        /** whether the value can never be {@code null} */
+        final boolean primitive;
+
+        FieldKind(boolean primitive)
+        {
+            this.primitive = primitive;
+        }
+    }
+
+    /**
+     * A single field of a payload
+     */
+    private class CodecField
+    {
+        /** the name of the field in Java */
+        final String name;
+
+        /** its name in JSON */
+        final String jsonName;
+
+        /** its type, as source */
+        final String type;
+
+        /** how we handle it */
+        final FieldKind kind;
+
+        /** for primitives & boxed types; how we read it */
+        String reader;
+
+        /** for doubles & floats; these may not be finite */
+        boolean decimal;
+
+        /** for collections; what they hold */
+        CodecField element;
+
+        /** for collections; what we create when reading one */
+        String implementation;
+
+        CodecField(VariableElement field)
+        {
+            this(field.getSimpleName().toString(), annotationValue(field, SERIALIZED_NAME), field.asType());
+        }
+
+        /**
+         * @param name the name of the field in Java
+         * @param serializedName its name in JSON, if it's been renamed
+         * @param type its type
+         */
+        private CodecField(String name, Object serializedName, TypeMirror type)
+        {
+            this.name = name;
+            this.jsonName = serializedName == null ? name : serializedName.toString();
+            this.type = type.getKind().isPrimitive()
+                        ? processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString()
+                        : type.toString();
+            this.kind = classify(type);
+        }
+
+        /**
+         * @param type the field's type
+         * @return how we should handle it
+         */
+        private FieldKind classify(TypeMirror type)
+        {
+            switch (type.getKind())
+            {
+                case INT:     reader = "in.nextInt()"; return FieldKind.PRIMITIVE;
+                case LONG:    reader = "in.nextLong()"; return FieldKind.PRIMITIVE;
+                case DOUBLE:  reader = "PayloadCodecs.nextDouble(in)"; decimal = true; return FieldKind.PRIMITIVE;
+                case BOOLEAN: reader = "in.nextBoolean()"; return FieldKind.PRIMITIVE;
+                case SHORT:   reader = "(short) in.nextInt()"; return FieldKind.PRIMITIVE;
+                case BYTE:    reader = "(byte) in.nextInt()"; return FieldKind.PRIMITIVE;
+                case FLOAT:   reader = "(float) PayloadCodecs.nextDouble(in)"; decimal = true; return FieldKind.PRIMITIVE;
+                case DECLARED: break;
+                default:      return FieldKind.GSON;
+            }
+
+            final TypeElement _element = (TypeElement) ((DeclaredType) type).asElement();
+            final String _name = _element.getQualifiedName().toString();
+
+            for (String[] boxed : BOXED)
+            {
+                if (boxed[0].equals(_name))
+                {
+                    reader = boxed[1];
+                    decimal = _name.equals("java.lang.Double") || _name.equals("java.lang.Float");
+
+                    return FieldKind.BOXED;
+                }
+            }
+
+            for (String[] collection : COLLECTIONS)
+            {
+                if (collection[0].equals(_name) && ((DeclaredType) type).getTypeArguments().size() == 1)
+                {
+                    final CodecField _contents = new CodecField(name, null, ((DeclaredType) type).getTypeArguments().get(0));
+
+                    // anything more involved is left to Gson
+                    if (_contents.kind == FieldKind.COLLECTION || _contents.kind == FieldKind.GSON)
+                        return FieldKind.GSON;
+
+                    element = _contents;
+                    implementation = collection[1];
+
+                    return FieldKind.COLLECTION;
+                }
+            }
+
+            if (_name.equals("java.lang.String"))
+                return FieldKind.STRING;
+
+            if (_name.equals("java.util.UUID"))
+                return FieldKind.UUID;
+
+            // Gson honors renamed constants; leave those to it
+            if (_element.getKind() == ElementKind.ENUM && ElementFilter.fieldsIn(_element.getEnclosedElements()).stream()
+                                                                       .noneMatch(constant -> annotation(constant, SERIALIZED_NAME) != null))
+                return FieldKind.ENUM;
+
+            return FieldKind.GSON;
+        }
+    }
+
+    /**
+     * Thrown when a payload can't have a codec generated for it
+     */
+    private static class InvalidPayloadException extends RuntimeException
+    {
+        /** where the problem is */
+        final Element element;
+
+        InvalidPayloadException(String message, Element element)
+        {
+            super(message);
+            this.element = element;
+        }
+    }
+
+}
@@ -0,0 +1,9 @@
+/**
+ * Generates a {@link com.hyleria.common.redis.codec.PayloadCodec}
+ * for every {@link com.hyleria.common.redis.api.Focus} annotated
+ * payload while compiling. Built on its own before everything
+ * else in this module.
+ *
+ * @since May/23/2017 (1:15 PM)
+ */
+package com.hyleria.common.redis.codec.processor;
@@ -5,6 +5,7 @@ import com.hyleria.common.json.Exclude;
 import org.json.simple.JSONObject;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.List;
 
@@ -54,7 +55,8 @@ public class ReflectionUtil
      */
     public static boolean skipOver(Field field)
     {
-        return field.isAnnotationPresent(Exclude.class);
+        // constants aren't part of the object; Gson skips them too
+        return field.isAnnotationPresent(Exclude.class) || Modifier.isStatic(field.getModifiers());
     }
 
     /**
@@ -0,0 +1,53 @@
+package com.hyleria.common.test;
+
+import com.hyleria.common.account.Account;
+import com.hyleria.common.mongo.AccountCache;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/27/2017 (1:02 PM)
+ */
+public class AccountCacheTest
+{
+
+    private final AccountCache cache = new AccountCache(null);
+
+    @Test
+    public void findsByAnyCase()
+    {
+        final Account _account = cache.put(Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1"));
+
+        assertSame(_account, cache.get("outdatedversion").orElse(null));
+        assertSame(_account, cache.get("OUTDATEDVERSION").orElse(null));
+        assertFalse(cache.contains("someone"));
+    }
+
+    @Test
+    public void dropsNameOnInvalidate()
+    {
+        final UUID _uuid = UUID.randomUUID();
+
+        cache.put(Account.fromLoginData(_uuid, "OutdatedVersion", "127.0.0.1"));
+        cache.invalidate(_uuid);
+
+        assertFalse(cache.contains("OutdatedVersion"));
+    }
+
+    @Test
+    public void followsNameChanges()
+    {
+        final UUID _uuid = UUID.randomUUID();
+
+        cache.put(Account.fromLoginData(_uuid, "OutdatedVersion", "127.0.0.1"));
+        cache.put(Account.fromLoginData(_uuid, "Ben", "127.0.0.1"));
+
+        assertFalse(cache.contains("OutdatedVersion"));
+        assertEquals(_uuid, cache.get("ben").map(Account::uuid).orElse(null));
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.hyleria.common.test;
+
+import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountCodec;
+import com.hyleria.common.mongo.codec.ExtraCodecs;
+import com.hyleria.common.reference.Role;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/28/2017 (12:05 PM)
+ */
+public class AccountCodecTest
+{
+
+    private final AccountCodec codec = new AccountCodec();
+
+    @Test
+    public void decodesStoredAccount()
+    {
+        final UUID _uuid = UUID.randomUUID();
+        final Document _stored = new Document("uuid", _uuid.toString())
+                .append("name", "OutdatedVersion")
+                .append("name_lower", "outdatedversion")
+                .append("role", Role.PLAYER.name())
+                .append("previous_names", Collections.singletonList("OutdatedVersion"))
+                .append("current_address", "127.0.0.1")
+                .append("previous_addresses", Collections.singletonList(new Account.PreviousAddress("127.0.0.1", 10L)))
+                .append("chat_prefix", "&c[Cool]");
+
+        final Account _account = decode(_stored.toBsonDocument(BsonDocument.class, ExtraCodecs.HYLERIA_REGISTRY));
+
+        assertEquals(_uuid, _account.uuid());
+        assertEquals("OutdatedVersion", _account.username());
+        assertEquals(Role.PLAYER, _account.role());
+        assertTrue(_account.isPresent("chat_prefix"));
+        assertEquals("&c[Cool]", _account.val("chat_prefix", String.class));
+        assertFalse(_account.isPresent("name_lower"));
+    }
+
+    @Test
+    public void keepsCustomDataThroughRoundTrip()
+    {
+        final Account _account = Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1")
+                                        .addVal("kills", 12)
+                                        .addVal("titles", Arrays.asList("a", "b"));
+
+        final BsonDocument _encoded = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(_encoded), _account, EncoderContext.builder().build());
+
+        final Account _decoded = decode(_encoded);
+
+        assertEquals(_account.uuid(), _decoded.uuid());
+        assertEquals(Integer.valueOf(12), _decoded.val("kills", Integer.class));
+        assertEquals(Arrays.asList("a", "b"), _decoded.val("titles", List.class));
+
+        // replaced values win over what we loaded
+        _decoded.addVal("kills", 13);
+
+        final BsonDocument _again = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(_again), _decoded, EncoderContext.builder().build());
+
+        assertEquals(13, _again.getInt32("kills").getValue());
+    }
+
+    private Account decode(BsonDocument document)
+    {
+        return codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.hyleria.common.test;
+
+import com.hyleria.common.account.Account;
+import com.hyleria.common.account.AccountField;
+import com.hyleria.common.account.AccountView;
+import com.hyleria.common.reference.Role;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/30/2017 (1:10 PM)
+ */
+public class AccountViewTest
+{
+
+    @Test
+    public void onlyHasWhatWasLoaded()
+    {
+        final AccountView _view = AccountView.partial(Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1"),
+                                                      EnumSet.of(AccountField.NAME, AccountField.ROLE));
+
+        assertEquals("OutdatedVersion", _view.username());
+        assertEquals(Role.PLAYER, _view.role());
+        assertFalse(_view.isFull());
+        assertFalse(_view.covers(EnumSet.of(AccountField.CURRENT_ADDRESS)));
+
+        try
+        {
+            _view.currentAddress();
+            fail("Read a field that wasn't loaded");
+        }
+        catch (IllegalStateException ex)
+        {
+            // what we're after
+        }
+    }
+
+    @Test
+    public void fullAccountCoversEverything()
+    {
+        final AccountView _view = AccountView.of(Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1"));
+
+        assertTrue(_view.isFull());
+        assertTrue(_view.covers(EnumSet.allOf(AccountField.class)));
+        assertEquals("127.0.0.1", _view.currentAddress());
+    }
+
+}
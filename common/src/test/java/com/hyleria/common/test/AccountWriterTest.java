@@ -0,0 +1,98 @@
+package com.hyleria.common.test;
+
+import com.google.common.collect.Lists;
+import com.hyleria.common.account.Account;
+import com.hyleria.common.mongo.AccountWriter;
+import com.hyleria.common.mongo.codec.ExtraCodecs;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/31/2017 (10:10 AM)
+ */
+public class AccountWriterTest
+{
+
+    /** every bulk write we were asked to make */
+    private final List<List<WriteModel<Document>>> writes = Lists.newArrayList();
+
+    private final AccountWriter writer = new AccountWriter(collection(), written -> { });
+
+    @Test
+    public void flushesCustomValues()
+    {
+        final Account _account = Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1");
+
+        _account.trackChanges(writer::markDirty);
+        _account.addVal("kills", 12);
+
+        assertEquals(1, writer.flush());
+        assertEquals(1, writes.size());
+
+        final UpdateOneModel<Document> _model = (UpdateOneModel<Document>) writes.get(0).get(0);
+        final BsonDocument _update = _model.getUpdate().toBsonDocument(Document.class, ExtraCodecs.HYLERIA_REGISTRY);
+
+        assertEquals(12, _update.getDocument("$set").getInt32("kills").getValue());
+        assertEquals(1L, _update.getDocument("$inc").getInt64("version").getValue());
+        assertFalse(_account.isDirty());
+
+        // nothing left to write
+        assertEquals(0, writer.flush());
+        assertEquals(1, writes.size());
+    }
+
+    @Test
+    public void keepsChangesWhenWriteFails()
+    {
+        final AccountWriter _failing = new AccountWriter(failingCollection(), written -> fail("nothing was written"));
+        final Account _account = Account.fromLoginData(UUID.randomUUID(), "OutdatedVersion", "127.0.0.1");
+
+        _account.trackChanges(_failing::markDirty);
+        _account.addVal("kills", 12);
+
+        assertEquals(-1, _failing.flush());
+        assertTrue(_account.isDirty());
+        assertFalse(_failing.isEmpty());
+    }
+
+    /**
+     * @return a collection that only records bulk writes
+     */
+    @SuppressWarnings ( "unchecked" )
+    private MongoCollection<Document> collection()
+    {
+        return (MongoCollection<Document>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { MongoCollection.class }, (proxy, method, args) ->
+        {
+            if (!method.getName().equals("bulkWrite"))
+                throw new UnsupportedOperationException(method.getName());
+
+            writes.add((List<WriteModel<Document>>) args[0]);
+
+            return null;
+        });
+    }
+
+    /**
+     * @return a collection that fails every write
+     */
+    @SuppressWarnings ( "unchecked" )
+    private static MongoCollection<Document> failingCollection()
+    {
+        return (MongoCollection<Document>) Proxy.newProxyInstance(AccountWriterTest.class.getClassLoader(), new Class[] { MongoCollection.class }, (proxy, method, args) ->
+        {
+            throw new IllegalStateException("Mongo is down");
+        });
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.hyleria.common.test;
+
+import com.hyleria.common.backend.payload.StaffChatPayload;
+import com.hyleria.common.redis.InMemoryTransport;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.redis.api.Priority;
+import com.hyleria.common.redis.api.HandlesType;
+import com.hyleria.common.reference.Role;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs a couple of "servers" against each
+ * other w/o a Redis instance.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/26/2017 (1:30 PM)
+ */
+public class InMemoryTransportTest
+{
+
+    private final InMemoryTransport.Network network = new InMemoryTransport.Network();
+
+    private RedisHandler lobby;
+    private RedisHandler game;
+
+    @Before
+    public void setup()
+    {
+        lobby = new RedisHandler().init(null, new InMemoryTransport(network)).subscribe(RedisChannel.DEFAULT);
+        game = new RedisHandler().init(null, new InMemoryTransport(network)).subscribe(RedisChannel.DEFAULT);
+    }
+
+    @After
+    public void teardown()
+    {
+        lobby.releaseResources();
+        game.releaseResources();
+    }
+
+    @Test
+    public void deliversToEveryone() throws InterruptedException
+    {
+        final StaffChatHook _lobbyHook = new StaffChatHook(1);
+        final StaffChatHook _gameHook = new StaffChatHook(1);
+
+        lobby.registerHook(_lobbyHook);
+        game.registerHook(_gameHook);
+
+        new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "hi", "Lobby-1").publish(lobby);
+
+        assertTrue(_lobbyHook.latch.await(5, TimeUnit.SECONDS));
+        assertTrue(_gameHook.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("hi", _gameHook.received.poll().message);
+    }
+
+    @Test
+    public void stopsAfterUnsubscribing() throws InterruptedException
+    {
+        final StaffChatHook _gameHook = new StaffChatHook(1);
+
+        game.registerHook(_gameHook);
+        game.unsubscribe(RedisChannel.DEFAULT);
+
+        new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "hi", "Lobby-1").publish(lobby);
+
+        assertTrue(lobby.flush(5, TimeUnit.SECONDS));
+        assertFalse(_gameHook.latch.await(250, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void flushReportsFailedWrites()
+    {
+        final RedisHandler _broken = new RedisHandler().init(null, new InMemoryTransport(network)
+        {
+            @Override
+            public void publish(Priority priority, List<Message> batch)
+            {
+                throw new IllegalStateException("Redis is down");
+            }
+        });
+
+        try
+        {
+            new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "hi", "Lobby-1").publish(_broken);
+
+            assertFalse(_broken.flush(5, TimeUnit.SECONDS));
+
+            // already reported; nothing new has gone wrong since
+            assertTrue(_broken.flush(5, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            _broken.releaseResources();
+        }
+    }
+
+    /**
+     * Collects staff chat messages
+     */
+    public static class StaffChatHook
+    {
+        final Queue<StaffChatPayload> received = new ConcurrentLinkedQueue<>();
+        final CountDownLatch latch;
+
+        StaffChatHook(int expected)
+        {
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @HandlesType ( StaffChatPayload.class )
+        public void handle(StaffChatPayload payload)
+        {
+            received.add(payload);
+            latch.countDown();
+        }
+    }
+
+}
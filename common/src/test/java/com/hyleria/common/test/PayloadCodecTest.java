@@ -0,0 +1,106 @@
+package com.hyleria.common.test;
+
+import com.google.gson.Gson;
+import com.hyleria.common.backend.payload.BulkSwitchPlayerServerPayload;
+import com.hyleria.common.backend.payload.RequestSelfCommandRefreshPayload;
+import com.hyleria.common.backend.payload.ServerHeartbeatPayload;
+import com.hyleria.common.backend.payload.StaffChatPayload;
+import com.hyleria.common.redis.Envelope;
+import com.hyleria.common.redis.PayloadDecoder;
+import com.hyleria.common.redis.codec.PayloadCodecs;
+import com.hyleria.common.reference.Role;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/23/2017 (3:05 PM)
+ */
+public class PayloadCodecTest
+{
+
+    private final PayloadDecoder decoder = new PayloadDecoder(new Gson());
+
+    @Test
+    public void generatesCodecs()
+    {
+        assertNotNull(PayloadCodecs.forType(StaffChatPayload.class));
+        assertNotNull(PayloadCodecs.forType(BulkSwitchPlayerServerPayload.class));
+        assertSame(PayloadCodecs.forType(StaffChatPayload.class), PayloadCodecs.forFocus("gen-staff-chat"));
+
+        assertEquals("gen-staff-chat", PayloadCodecs.focusOf(StaffChatPayload.class));
+        assertEquals("network-server-switch-bulk", PayloadCodecs.focusOf(BulkSwitchPlayerServerPayload.class));
+    }
+
+    @Test
+    public void roundTrips() throws IOException
+    {
+        final UUID _uuid = UUID.randomUUID();
+        final BulkSwitchPlayerServerPayload _sent = BulkSwitchPlayerServerPayload.of(Arrays.asList(_uuid), "Lobby-");
+        final String _message = new Envelope("network-server-switch-bulk", _sent).asString();
+
+        // null fields aren't written at all
+        assertFalse(_message.contains("from_server"));
+
+        final BulkSwitchPlayerServerPayload _received = (BulkSwitchPlayerServerPayload) decoder.decode(_message, focus -> BulkSwitchPlayerServerPayload.class).payload;
+
+        assertEquals(_sent.players, _received.players);
+        assertEquals("Lobby-", _received.requestedServer);
+        assertNull(_received.fromServer);
+    }
+
+    @Test
+    public void writesListsWithoutGson() throws IOException
+    {
+        final BulkSwitchPlayerServerPayload _sent = BulkSwitchPlayerServerPayload.of(Arrays.asList(UUID.randomUUID(), UUID.randomUUID()), "Lobby-");
+        final StringBuilder _json = new StringBuilder();
+
+        _sent.players.add(null);
+        PayloadCodecs.write(_sent, _json);
+
+        // nothing left for Gson to do
+        assertEquals(0, PayloadCodecs.forType(BulkSwitchPlayerServerPayload.class).getClass().getDeclaredFields().length);
+
+        final BulkSwitchPlayerServerPayload _received = (BulkSwitchPlayerServerPayload) decoder.decode(new Envelope("network-server-switch-bulk", _sent).asString(), focus -> BulkSwitchPlayerServerPayload.class).payload;
+
+        assertEquals(_sent.players, _received.players);
+        assertTrue(_json.toString().startsWith("{\"players\":[\""));
+        assertTrue(_json.toString().contains("\",null]"));
+    }
+
+    @Test
+    public void survivesNonFiniteNumbers() throws IOException
+    {
+        final ServerHeartbeatPayload _sent = new ServerHeartbeatPayload("Lobby-1", 4, 100, Double.NaN, Double.POSITIVE_INFINITY, null, null);
+        final String _message = new Envelope("network-server-heartbeat", _sent).asString();
+        final ServerHeartbeatPayload _received = (ServerHeartbeatPayload) decoder.decode(_message, focus -> ServerHeartbeatPayload.class).payload;
+
+        assertTrue(Double.isNaN(_received.tps));
+        assertEquals(Double.POSITIVE_INFINITY, _received.mspt, 0);
+        assertEquals(4, _received.players);
+    }
+
+    @Test
+    public void escapesStrings() throws IOException
+    {
+        final String _message = new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "\"quoted\"\n\\", "Lobby-1").asString("gen-staff-chat");
+        final StaffChatPayload _received = (StaffChatPayload) decoder.decode(_message, focus -> StaffChatPayload.class).payload;
+
+        assertEquals("\"quoted\"\n\\", _received.message);
+        assertEquals(Role.DEV, _received.role);
+    }
+
+    @Test
+    public void writesEmptyPayloads() throws IOException
+    {
+        final String _message = new RequestSelfCommandRefreshPayload().asString("refresh");
+
+        assertNotNull(decoder.decode(_message, focus -> RequestSelfCommandRefreshPayload.class).payload);
+    }
+
+}
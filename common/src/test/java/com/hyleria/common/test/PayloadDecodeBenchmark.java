@@ -0,0 +1,77 @@
+package com.hyleria.common.test;
+
+import com.google.gson.Gson;
+import com.hyleria.common.backend.payload.StaffChatPayload;
+import com.hyleria.common.redis.PayloadDecoder;
+import com.hyleria.common.redis.api.Payload;
+import com.hyleria.common.reference.Role;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the way we used to turn Redis messages
+ * into payloads (parse, re-serialize, parse again)
+ * against {@link PayloadDecoder}.
+ *
+ * <p>
+ * Run via the {@link #main(String[])} method
+ * from your IDE; surefire won't pick this up.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/14/2017 (2:40 PM)
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 5 )
+@Measurement ( iterations = 5 )
+@Fork ( 1 )
+public class PayloadDecodeBenchmark
+{
+
+    /** shared by both paths */
+    private final Gson gson = new Gson();
+
+    /** the new path */
+    private final PayloadDecoder decoder = new PayloadDecoder(gson);
+
+    /** the old path */
+    private final JSONParser parser = new JSONParser();
+
+    /** what we're decoding */
+    private String message;
+
+    @Setup
+    public void setup()
+    {
+        message = new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "restarting UHC-1 in a minute", "Lobby-1").asString("gen-staff-chat");
+    }
+
+    @Benchmark
+    public Payload legacy() throws Exception
+    {
+        final JSONObject _json = (JSONObject) parser.parse(message);
+        final String _focus = (String) _json.get("focus");
+
+        return _focus == null ? null : gson.fromJson(((JSONObject) _json.get("payload")).toJSONString(), StaffChatPayload.class);
+    }
+
+    @Benchmark
+    public Payload streaming() throws IOException
+    {
+        return decoder.decode(message, focus -> StaffChatPayload.class).payload;
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(PayloadDecodeBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,118 @@
+package com.hyleria.common.test;
+
+import com.google.gson.Gson;
+import com.hyleria.common.backend.payload.StaffChatPayload;
+import com.hyleria.common.backend.payload.SwitchPlayerServerPayload;
+import com.hyleria.common.redis.Envelope;
+import com.hyleria.common.redis.MessageDeduplicator;
+import com.hyleria.common.redis.PayloadDecoder;
+import com.hyleria.common.reference.Role;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Ben (OutdatedVersion)
+ * @since May/14/2017 (2:15 PM)
+ */
+public class PayloadDecoderTest
+{
+
+    private final PayloadDecoder decoder = new PayloadDecoder(new Gson());
+
+    @Test
+    public void bindsPayloadAfterFocus() throws IOException
+    {
+        final String _message = new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "hi", "Lobby-1").asString("gen-staff-chat");
+        final Envelope _decoded = decoder.decode(_message, focus -> StaffChatPayload.class);
+
+        assertEquals("gen-staff-chat", _decoded.focus);
+
+        final StaffChatPayload _payload = (StaffChatPayload) _decoded.payload;
+
+        assertEquals("OutdatedVersion", _payload.name);
+        assertEquals(Role.DEV, _payload.role);
+        assertEquals("Lobby-1", _payload.sentOn);
+    }
+
+    @Test
+    public void bindsPayloadBeforeFocus() throws IOException
+    {
+        final String _message = "{\"payload\":{\"name\":\"OutdatedVersion\",\"role\":\"ADMIN\",\"message\":\"hi\"},\"focus\":\"gen-staff-chat\"}";
+        final StaffChatPayload _payload = (StaffChatPayload) decoder.decode(_message, focus -> StaffChatPayload.class).payload;
+
+        assertEquals(Role.ADMIN, _payload.role);
+        assertEquals("hi", _payload.message);
+    }
+
+    @Test
+    public void keepsCorrelation() throws IOException
+    {
+        final String _message = new Envelope("gen-staff-chat", new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "hi", "Lobby-1"))
+                                        .correlate("abc:1", "hyleria-reply.abc")
+                                        .asString();
+        final Envelope _decoded = decoder.decode(_message, focus -> StaffChatPayload.class);
+
+        assertEquals("abc:1", _decoded.correlation());
+        assertEquals("hyleria-reply.abc", _decoded.replyTo());
+        assertTrue(_decoded.expectsReply());
+    }
+
+    @Test
+    public void skipsUninterestingFocus() throws IOException
+    {
+        assertNull(decoder.decode("{\"focus\":\"nobody-cares\",\"payload\":{}}", focus -> null));
+    }
+
+    @Test ( expected = IOException.class )
+    public void rejectsMalformedMessage() throws IOException
+    {
+        decoder.decode("{\"focus\":", focus -> StaffChatPayload.class);
+    }
+
+    @Test
+    public void keepsMessageID() throws IOException
+    {
+        final SwitchPlayerServerPayload _payload = new SwitchPlayerServerPayload(UUID.randomUUID(), "Lobby-1");
+        final Envelope _decoded = decoder.decode(_payload.asString("network-server-switch"), focus -> SwitchPlayerServerPayload.class);
+
+        // the same payload is always sent w/ the same ID
+        assertEquals(_payload.idempotencyKey(), _decoded.id());
+        assertEquals(_payload.idempotencyKey(), _payload.idempotencyKey());
+    }
+
+    @Test
+    public void dropsDuplicates()
+    {
+        final MessageDeduplicator _deduplicator = new MessageDeduplicator(1, TimeUnit.MINUTES);
+
+        assertTrue(_deduplicator.firstSeen("a"));
+        assertTrue(_deduplicator.firstSeen("b"));
+        assertFalse(_deduplicator.firstSeen("a"));
+
+        assertEquals(1, _deduplicator.duplicates());
+        assertEquals(1 / 3D, _deduplicator.hitRate(), 0.0001);
+    }
+
+    @Test
+    public void inflatesCompressedPayloads() throws IOException
+    {
+        final String _text = String.join(" ", Collections.nCopies(200, "hello"));
+        final Envelope _sent = new Envelope("gen-staff-chat", new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", _text, "Lobby-1")).compressAbove(256);
+        final String _message = _sent.asString();
+
+        assertTrue(_message.contains("\"encoding\":\"deflate\""));
+        assertTrue(_sent.bytesSaved() > 0);
+
+        final StaffChatPayload _payload = (StaffChatPayload) decoder.decode(_message, focus -> StaffChatPayload.class).payload;
+
+        assertEquals(_text, _payload.message);
+        assertEquals(Role.DEV, _payload.role);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.hyleria.common.test;
+
+import com.hyleria.common.backend.payload.StaffChatPayload;
+import com.hyleria.common.redis.InMemoryTransport;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.redis.api.HandlesType;
+import com.hyleria.common.reference.Role;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes staff chat from one "server" to a few
+ * others over an {@link InMemoryTransport}; so we
+ * measure everything but Redis itself: queueing,
+ * encoding, decoding, dedup, and dispatch.
+ *
+ * <p>
+ * Run via the {@link #main(String[])} method
+ * from your IDE; surefire won't pick this up.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/26/2017 (2:05 PM)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.Throughput )
+@OutputTimeUnit ( TimeUnit.MILLISECONDS )
+@Warmup ( iterations = 5 )
+@Measurement ( iterations = 5 )
+@Fork ( 1 )
+public class PipelineBenchmark
+{
+
+    /** how many servers receive each payload */
+    @Param ( { "1", "4" } )
+    public int receivers;
+
+    /** where everything is sent from */
+    private RedisHandler sender;
+
+    /** everyone else */
+    private RedisHandler[] servers;
+
+    /** how many payloads our hooks have seen */
+    private final AtomicLong handled = new AtomicLong();
+
+    /** what we're sending */
+    private StaffChatPayload payload;
+
+    @Setup
+    public void setup()
+    {
+        final InMemoryTransport.Network _network = new InMemoryTransport.Network();
+
+        sender = new RedisHandler().init(null, new InMemoryTransport(_network));
+        servers = new RedisHandler[receivers];
+
+        for (int i = 0; i < receivers; i++)
+            servers[i] = new RedisHandler().init(null, new InMemoryTransport(_network)).subscribe(RedisChannel.DEFAULT).registerHook(new Counter(handled));
+
+        payload = new StaffChatPayload("OutdatedVersion", Role.DEV, "RED", "restarting UHC-1 in a minute", "Lobby-1");
+    }
+
+    @TearDown
+    public void teardown()
+    {
+        sender.releaseResources();
+
+        for (RedisHandler server : servers)
+            server.releaseResources();
+    }
+
+    @Benchmark
+    public void staffChat()
+    {
+        sender.publish(RedisChannel.DEFAULT, payload);
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        new Runner(new OptionsBuilder().include(PipelineBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Counts what it receives
+     */
+    public static class Counter
+    {
+        private final AtomicLong handled;
+
+        Counter(AtomicLong handled)
+        {
+            this.handled = handled;
+        }
+
+        @HandlesType ( StaffChatPayload.class )
+        public void handle(StaffChatPayload payload)
+        {
+            handled.incrementAndGet();
+        }
+    }
+
+}
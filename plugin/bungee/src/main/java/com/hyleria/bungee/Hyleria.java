@@ -3,8 +3,13 @@ package com.hyleria.bungee;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.hyleria.bungee.handle.Ping;
+import com.hyleria.bungee.network.PresenceTracker;
 import com.hyleria.bungee.network.RequestProcessor;
+import com.hyleria.bungee.network.ServerRegistry;
+import com.hyleria.common.backend.presence.PresenceRegistry;
+import com.hyleria.common.config.ConfigurationProvider;
 import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisConfig;
 import com.hyleria.common.redis.RedisHandler;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.plugin.Listener;
@@ -32,15 +37,19 @@ public class Hyleria extends Plugin
             binder.bind(ProxyServer.class).toInstance(ProxyServer.getInstance());
         });
 
-        injector.getInstance(RedisHandler.class).init().subscribe(RedisChannel.NETWORK);
+        injector.getInstance(RedisHandler.class).init(injector.getInstance(ConfigurationProvider.class).read("redis/{env}", RedisConfig.class))
+                                                .subscribe(RedisChannel.NETWORK)
+                                                .subscribeAs(RedisChannel.forProxy(PresenceTracker.PROXY_NAME), RedisChannel.NETWORK)
+                                                .durable(PresenceTracker.PROXY_NAME);
 
-        inject(RequestProcessor.class);
-        injectAndRegister(Ping.class);
+        inject(ServerRegistry.class, RequestProcessor.class);
+        injectAndRegister(Ping.class, PresenceTracker.class);
     }
 
     @Override
     public void onDisable()
     {
+        injector.getInstance(PresenceRegistry.class).releaseResources();
         injector.getInstance(RedisHandler.class).releaseResources();
     }
 
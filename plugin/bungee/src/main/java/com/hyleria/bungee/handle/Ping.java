@@ -3,6 +3,7 @@ package com.hyleria.bungee.handle;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import com.hyleria.bungee.Hyleria;
+import com.hyleria.bungee.network.ServerRegistry;
 import net.md_5.bungee.api.ServerPing;
 import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.event.ProxyPingEvent;
@@ -24,6 +25,9 @@ public class Ping implements Listener
     /** local plugin instance */
     @Inject private Hyleria hyleria;
 
+    /** where our player counts come from */
+    @Inject private ServerRegistry servers;
+
     /** the text of our ping response */
     private TextComponent pingResponse = new TextComponent(GOLD_BOLD + "Hyleria" + GRAY_BOLD + " » " +
             RED + "Release " + DARK_AQUA_BOLD + "Saturday, April 1st" + RED + " at " + AQUA_BOLD + "5PM UTC\n" +
@@ -37,7 +41,15 @@ public class Ping implements Listener
         final ServerPing _response = event.getResponse();
 
         _response.setDescriptionComponent(pingResponse);
-        _response.getPlayers().setMax(500);
+        // report the whole network, not just this proxy; but only
+        // once we've actually heard from some of our servers
+        final int _capacity = servers.capacity();
+
+        if (_capacity > 0)
+        {
+            _response.getPlayers().setOnline(servers.onlinePlayers());
+            _response.getPlayers().setMax(_capacity);
+        }
 
         event.setResponse(_response);
     }
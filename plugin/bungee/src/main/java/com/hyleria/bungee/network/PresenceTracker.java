@@ -0,0 +1,108 @@
+package com.hyleria.bungee.network;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.bungee.Hyleria;
+import com.hyleria.common.backend.presence.Presence;
+import com.hyleria.common.backend.presence.PresenceRegistry;
+import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.PlayerDisconnectEvent;
+import net.md_5.bungee.api.event.PostLoginEvent;
+import net.md_5.bungee.api.event.ServerConnectedEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.event.EventHandler;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link PresenceRegistry} up to
+ * date with every player on this proxy.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/20/2017 (3:02 PM)
+ */
+@Singleton
+public class PresenceTracker implements Listener
+{
+
+    /** the name of this proxy; unique across the network */
+    public static final String PROXY_NAME = System.getProperty("com.hyleria.bungee.name", "Proxy-1");
+
+    /** where we keep everything */
+    private final PresenceRegistry registry;
+
+    /** BungeeCord proxy */
+    private final ProxyServer proxy;
+
+    /** our plugin */
+    private final Hyleria plugin;
+
+    @Inject
+    public PresenceTracker(PresenceRegistry registry, ProxyServer proxy, Hyleria plugin)
+    {
+        this.registry = registry;
+        this.proxy = proxy;
+        this.plugin = plugin;
+
+        proxy.getScheduler().schedule(plugin, this::heartbeat, PresenceRegistry.HEARTBEAT_SECONDS, PresenceRegistry.HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @EventHandler
+    public void handleLogin(PostLoginEvent event)
+    {
+        final Presence _presence = presenceOf(event.getPlayer());
+
+        proxy.getScheduler().runAsync(plugin, () -> registry.update(_presence));
+    }
+
+    @EventHandler
+    public void handleSwitch(ServerConnectedEvent event)
+    {
+        final Presence _presence = presenceOf(event.getPlayer()).on(event.getServer().getInfo().getName());
+
+        proxy.getScheduler().runAsync(plugin, () -> registry.update(_presence));
+    }
+
+    @EventHandler
+    public void handleQuit(PlayerDisconnectEvent event)
+    {
+        final ProxiedPlayer _player = event.getPlayer();
+
+        proxy.getScheduler().runAsync(plugin, () -> registry.remove(_player.getUniqueId(), _player.getName()));
+    }
+
+    /**
+     * Let everyone know our players are still here
+     */
+    private void heartbeat()
+    {
+        final List<Presence> _online = proxy.getPlayers().stream().map(this::presenceOf).collect(Collectors.toList());
+
+        try
+        {
+            registry.heartbeat(_online);
+        }
+        catch (Exception ex)
+        {
+            ex.printStackTrace();
+            System.err.println("Failed to send presence heartbeat for " + _online.size() + " player(s)");
+        }
+    }
+
+    /**
+     * @param player the player
+     * @return where they are right now
+     */
+    private Presence presenceOf(ProxiedPlayer player)
+    {
+        return new Presence(player.getUniqueId(),
+                            player.getName(),
+                            player.getServer() == null ? null : player.getServer().getInfo().getName(),
+                            PROXY_NAME,
+                            System.currentTimeMillis());
+    }
+
+}
@@ -1,15 +1,24 @@
 package com.hyleria.bungee.network;
 
+import com.google.common.util.concurrent.RateLimiter;
 import com.google.inject.Inject;
+import com.hyleria.bungee.Hyleria;
+import com.hyleria.common.backend.payload.BulkSwitchPlayerServerPayload;
 import com.hyleria.common.backend.payload.SwitchPlayerServerPayload;
 import com.hyleria.common.redis.RedisChannel;
 import com.hyleria.common.redis.RedisHandler;
 import com.hyleria.common.redis.api.FromChannel;
 import com.hyleria.common.redis.api.HandlesType;
+import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.ProxyServer;
+import net.md_5.bungee.api.chat.TextComponent;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 /**
  * @author Ben (OutdatedVersion)
  * @since Mar/25/2017 (3:55 PM)
@@ -17,9 +26,21 @@ import net.md_5.bungee.api.connection.ProxiedPlayer;
 public class RequestProcessor
 {
 
+    /** the most players we'll connect to a server, per second, when processing bulk switches */
+    private static final double CONNECTS_PER_SECOND = Double.parseDouble(System.getProperty("com.hyleria.bungee.connects_per_second", "30"));
+
+    /** paces the connections made by bulk switches; shared so two at once don't double up */
+    private final RateLimiter connectLimiter = RateLimiter.create(CONNECTS_PER_SECOND);
+
     /** BungeeCord proxy */
     @Inject private ProxyServer proxy;
 
+    /** our plugin */
+    @Inject private Hyleria plugin;
+
+    /** where everything is, and how busy it is */
+    @Inject private ServerRegistry servers;
+
     /**
      * @param redis our redis instance
      */
@@ -49,11 +70,77 @@ public class RequestProcessor
 
         if (_player != null)
         {
-            final ServerInfo _info = proxy.getServerInfo(payload.requestedServer);
+            final String _current = _player.getServer() == null ? null : _player.getServer().getInfo().getName();
+            final ServerInfo _info = servers.resolve(payload.requestedServer, _current).map(proxy::getServerInfo).orElse(null);
 
             if (_info != null)
                 _player.connect(_info);
         }
     }
 
+    /**
+     * Moves a whole group of players at once. Rather
+     * than connecting everyone in the same instant
+     * we trickle them in at a steady rate.
+     *
+     * @param payload the bulk switch request
+     */
+    @FromChannel ( RedisChannel.NETWORK )
+    @HandlesType ( BulkSwitchPlayerServerPayload.class )
+    public void switchServersInBulk(BulkSwitchPlayerServerPayload payload)
+    {
+        // we'll pick per player when a group was requested
+        final boolean _group = ServerRegistry.isGroup(payload.requestedServer);
+        final ServerInfo _fixed = _group ? null : proxy.getServerInfo(payload.requestedServer);
+
+        if (!_group && _fixed == null)
+            return;
+
+        final List<UUID> _players;
+
+        if (payload.fromServer != null)
+        {
+            final ServerInfo _from = proxy.getServerInfo(payload.fromServer);
+
+            if (_from == null)
+                return;
+
+            _players = _from.getPlayers().stream().map(ProxiedPlayer::getUniqueId).collect(Collectors.toList());
+        }
+        else
+        {
+            _players = payload.uuids();
+        }
+
+        proxy.getScheduler().runAsync(plugin, () ->
+        {
+            for (UUID uuid : _players)
+            {
+                connectLimiter.acquire();
+
+                // they may have left while we were waiting
+                final ProxiedPlayer _player = proxy.getPlayer(uuid);
+
+                if (_player == null)
+                    continue;
+
+                final ServerInfo _info = _group
+                                         ? servers.pick(payload.requestedServer, payload.fromServer).map(proxy::getServerInfo).orElse(null)
+                                         : _fixed;
+
+                // nowhere to put them; only happens when we're out of room in that group
+                if (_info == null)
+                {
+                    if (payload.fromServer != null)
+                        _player.disconnect(TextComponent.fromLegacyText(ChatColor.GOLD + "Hyleria " + ChatColor.GRAY + "- " + ChatColor.YELLOW + "Server restarting; please reconnect"));
+
+                    continue;
+                }
+
+                if (_player.getServer() == null || !_player.getServer().getInfo().equals(_info))
+                    _player.connect(_info);
+            }
+        });
+    }
+
 }
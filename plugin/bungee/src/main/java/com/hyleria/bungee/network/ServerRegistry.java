@@ -0,0 +1,175 @@
+package com.hyleria.bungee.network;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.backend.payload.ServerHeartbeatPayload;
+import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.redis.api.FromChannel;
+import com.hyleria.common.redis.api.HandlesType;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Keeps track of every server on the network
+ * via the heartbeats they send, and picks the
+ * best place to send players.
+ *
+ * <p>
+ * A "group" of servers is everything sharing
+ * a name prefix ending in a dash; i.e. {@code Lobby-}
+ * covers {@code Lobby-1}, {@code Lobby-2}, etc.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/21/2017 (2:30 PM)
+ */
+@Singleton
+public class ServerRegistry
+{
+
+    /** how long a server may go w/o a heartbeat before we stop sending players there */
+    private static final long STALE_AFTER_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    /** statuses (see Coeus' {@code Status}) that players may join during */
+    private static final Set<String> JOINABLE = ImmutableSet.of(ServerHeartbeatPayload.STATUS_OPEN, "IDLE", "LOBBY_COUNTDOWN");
+
+    /** what we know about each server | name -> server */
+    private final ConcurrentHashMap<String, KnownServer> servers = new ConcurrentHashMap<>();
+
+    @Inject
+    public ServerRegistry(RedisHandler redis)
+    {
+        redis.registerHook(this);
+    }
+
+    /**
+     * @param payload a server checking in
+     */
+    @FromChannel ( RedisChannel.NETWORK )
+    @HandlesType ( ServerHeartbeatPayload.class )
+    public void handleHeartbeat(ServerHeartbeatPayload payload)
+    {
+        servers.put(payload.name, new KnownServer(payload, System.currentTimeMillis()));
+    }
+
+    /**
+     * @param name the requested server
+     * @return whether that names a group rather than a single server
+     */
+    public static boolean isGroup(String name)
+    {
+        return name.endsWith("-");
+    }
+
+    /**
+     * Figure out where to actually send a player
+     *
+     * @param requested the requested server or group
+     * @param exclude a server to never pick; may be {@code null}
+     * @return the server's name; empty if a group was
+     *         requested that doesn't have room for anyone
+     */
+    public Optional<String> resolve(String requested, String exclude)
+    {
+        return isGroup(requested) ? pick(requested, exclude) : Optional.of(requested);
+    }
+
+    /**
+     * Pick the least loaded server in the provided
+     * group that's currently able to take a player.
+     * We count the player against that server right
+     * away so a burst of picks is spread out properly.
+     *
+     * @param group the group; i.e. {@code Lobby-}
+     * @param exclude a server to never pick; may be {@code null}
+     * @return the server's name, if one has room
+     */
+    public Optional<String> pick(String group, String exclude)
+    {
+        final long _now = System.currentTimeMillis();
+
+        final Optional<KnownServer> _picked = servers.values().stream()
+                .filter(server -> _now - server.receivedAt < STALE_AFTER_MILLIS)
+                .filter(server -> server.heartbeat.name.startsWith(group) && !server.heartbeat.name.equals(exclude))
+                .filter(server -> JOINABLE.contains(server.heartbeat.status))
+                .filter(server -> server.load() < server.heartbeat.maxPlayers)
+                .min(Comparator.comparingDouble(KnownServer::loadFactor).thenComparing(server -> -server.heartbeat.tps));
+
+        _picked.ifPresent(server -> server.assigned.incrementAndGet());
+
+        return _picked.map(server -> server.heartbeat.name);
+    }
+
+    /**
+     * @return how many players are online across the network
+     */
+    public int onlinePlayers()
+    {
+        return fresh().mapToInt(server -> server.heartbeat.players).sum();
+    }
+
+    /**
+     * @return how many players the network can hold
+     */
+    public int capacity()
+    {
+        return fresh().mapToInt(server -> server.heartbeat.maxPlayers).sum();
+    }
+
+    /**
+     * @return every server that has checked in recently
+     */
+    private Stream<KnownServer> fresh()
+    {
+        final long _now = System.currentTimeMillis();
+
+        return servers.values().stream().filter(server -> _now - server.receivedAt < STALE_AFTER_MILLIS);
+    }
+
+    /**
+     * A server, as of its last heartbeat
+     */
+    private static class KnownServer
+    {
+        /** its latest heartbeat */
+        final ServerHeartbeatPayload heartbeat;
+
+        /** when we received that */
+        final long receivedAt;
+
+        /** players we've sent its way since that heartbeat */
+        final AtomicInteger assigned = new AtomicInteger();
+
+        KnownServer(ServerHeartbeatPayload heartbeat, long receivedAt)
+        {
+            this.heartbeat = heartbeat;
+            this.receivedAt = receivedAt;
+        }
+
+        /**
+         * @return how many players we think it has
+         */
+        int load()
+        {
+            return heartbeat.players + assigned.get();
+        }
+
+        /**
+         * @return how full it is; a lagging server looks fuller
+         */
+        double loadFactor()
+        {
+            final double _fill = heartbeat.maxPlayers <= 0 ? 1 : (double) load() / heartbeat.maxPlayers;
+
+            return _fill * (20 / Math.max(1, heartbeat.tps));
+        }
+    }
+
+}
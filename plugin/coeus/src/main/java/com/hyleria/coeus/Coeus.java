@@ -8,6 +8,7 @@ import com.hyleria.coeus.event.StatusChangeEvent;
 import com.hyleria.scoreboard.ScoreboardHandler;
 import com.hyleria.common.backend.ServerConfig;
 import com.hyleria.network.AccountManager;
+import com.hyleria.network.ServerHeartbeat;
 import com.hyleria.util.Module;
 import com.hyleria.util.PlayerUtil;
 import com.hyleria.util.TextUtil;
@@ -58,6 +59,10 @@ public class Coeus extends Module
         updateStatus(Status.IDLE);
         plugin.registerListeners(this);
 
+        // let the proxies know whether they can send players our way
+        plugin.get(ServerHeartbeat.class).reportStatus(() -> status.name())
+                                         .reportGame(this::gameName);
+
 
         new DamageEventFactory(game).init(plugin);
         new ScoreboardHandler().init(plugin).title(game.scoreboardTitle)
@@ -4,10 +4,12 @@ import com.google.inject.Inject;
 import com.hyleria.coeus.Coeus;
 import com.hyleria.command.api.Command;
 import com.hyleria.command.api.annotation.Permission;
+import com.hyleria.common.account.Account;
 import com.hyleria.common.inject.Requires;
+import com.hyleria.common.mongo.Database;
 import com.hyleria.common.reference.Role;
+import com.hyleria.util.Scheduler;
 import org.apache.commons.lang3.tuple.Pair;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.Comparator;
@@ -33,6 +35,9 @@ public class UHCCommands
     /** uhc game */
     @Inject private Coeus engine;
 
+    /** player accounts */
+    @Inject private Database database;
+
     @Command ( executor = { "kc", "killcount", "kills" } )
     public void killCount(Player player, Player target)
     {
@@ -54,20 +59,23 @@ public class UHCCommands
                         .sorted(Comparator.comparingInt(Pair::getValue))
                         .collect(Collectors.toList());
 
-        player.sendMessage(
+        final List<Pair<UUID, Integer>> _top = _sorted.subList(0, _sorted.size() < TOP_KILL_BOUND ? _sorted.size() : TOP_KILL_BOUND);
+
+        // some of them may have left already; grab everyone's name in one go
+        database.fetchAccounts(_top.stream().map(Pair::getKey).collect(Collectors.toList())).thenAccept(accounts -> Scheduler.sync(() ->
+            player.sendMessage(
                 bold(DARK_AQUA) + "Top Kills this round\n" +
-                _sorted.subList(0, _sorted.size() < TOP_KILL_BOUND ? _sorted.size() : TOP_KILL_BOUND)
-                .stream()
+                _top.stream()
                 .collect(StringBuilder::new, (builder, pair) ->
                 {
-                    final Player _player = Bukkit.getPlayer(pair.getKey());
+                    final Account _account = accounts.get(pair.getKey());
 
-                    if (_player != null)
-                        builder.append(PLAYER).append(_player.getName())
+                    if (_account != null)
+                        builder.append(PLAYER).append(_account.username())
                                 .append(GRAY).append(" - ")
                                 .append(RED).append(pair.getValue())
                                 .append("\n");
-                }, StringBuilder::append).toString());
+                }, StringBuilder::append).toString())));
     }
 
     @Command ( executor = "shrinkborder" )
@@ -6,9 +6,12 @@ import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.hyleria.command.api.CommandHandler;
 import com.hyleria.common.backend.ServerConfig;
+import com.hyleria.common.backend.presence.PresenceRegistry;
+import com.hyleria.common.config.ConfigurationProvider;
 import com.hyleria.common.inject.Requires;
 import com.hyleria.common.inject.StartParallel;
 import com.hyleria.common.redis.RedisChannel;
+import com.hyleria.common.redis.RedisConfig;
 import com.hyleria.common.redis.RedisHandler;
 import com.hyleria.common.reference.Constants;
 import com.hyleria.util.Module;
@@ -77,7 +80,11 @@ public class Hyleria extends JavaPlugin
         });
 
         // connect to Redis instance
-        inject(RedisHandler.class).init().subscribe(RedisChannel.DEFAULT);
+        inject(RedisHandler.class).init(get(ConfigurationProvider.class).read("redis/{env}", RedisConfig.class))
+                                  .primaryThreadExecutor(runnable -> getServer().getScheduler().runTask(this, runnable))
+                                  .subscribe(RedisChannel.DEFAULT)
+                                  .subscribeAs(RedisChannel.forServer(get(ServerConfig.class).name), RedisChannel.DEFAULT)
+                                  .durable(get(ServerConfig.class).name);
 
         // setup our command handler
         final CommandHandler _commandService = inject(CommandHandler.class).addProviders(CommandHandler.DEFAULT_PROVIDERS);
@@ -129,6 +136,10 @@ public class Hyleria extends JavaPlugin
                 System.err.println("Origin: [" + method.getDeclaringClass().getName() + "]");
             }
         });
+
+        // sends anything still waiting in the outgoing queue
+        get(PresenceRegistry.class).releaseResources();
+        get(RedisHandler.class).releaseResources();
     }
 
     /**
@@ -5,7 +5,8 @@ import com.hyleria.command.api.Command;
 import com.hyleria.command.api.annotation.Necessary;
 import com.hyleria.common.backend.ServerConfig;
 import com.hyleria.common.backend.payload.SwitchPlayerServerPayload;
-import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.common.backend.presence.PresenceRegistry;
+import com.hyleria.common.mongo.AccountHandoff;
 import com.hyleria.util.Message;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.bukkit.entity.Player;
@@ -22,8 +23,11 @@ public class SwitchServerCommand
     /** the server that we're on */
     private final String serverName;
 
-    /** our redis instance */
-    @Inject private RedisHandler redis;
+    /** where everyone is on the network */
+    @Inject private PresenceRegistry presence;
+
+    /** passes accounts along to the next server */
+    @Inject private AccountHandoff handoff;
 
     @Inject
     public SwitchServerCommand(ServerConfig config)
@@ -43,8 +47,17 @@ public class SwitchServerCommand
             return;
         }
 
-        Message.prefix("Network").content("You're being connected to").content(server, GREEN).send(player);
-        new SwitchPlayerServerPayload(player.getUniqueId(), server).publish(redis);
+        // the proxy picks the least busy server when given a group
+        if (server.endsWith("-"))
+            Message.prefix("Network").content("You're being sent to a").content(server.substring(0, server.length() - 1), GREEN).content("server").send(player);
+        else
+            Message.prefix("Network").content("You're being connected to").content(server, GREEN).send(player);
+
+        final SwitchPlayerServerPayload _payload = new SwitchPlayerServerPayload(player.getUniqueId(), server);
+
+        // leave their account for wherever they land, then
+        // only the proxy they're on needs to hear about it
+        handoff.handOff(player.getUniqueId()).whenComplete((ignored, ex) -> presence.route(player.getUniqueId(), _payload));
     }
 
     @Command ( executor = { "whereami", "where" } )
@@ -56,7 +69,7 @@ public class SwitchServerCommand
     @Command ( executor = { "lobby", "hub", "leave" } )
     public void goToLobby(Player player)
     {
-        switchServers(player, "Lobby-1");
+        switchServers(player, "Lobby-");
     }
 
     /**
@@ -70,7 +83,7 @@ public class SwitchServerCommand
         if (name.startsWith("-"))
             name = name.substring(1);
         else if (name.endsWith("-"))
-            name += "1";
+            return name;    // a group; let the proxy choose
         else
         {
             String[] _tokens = name.split("-");
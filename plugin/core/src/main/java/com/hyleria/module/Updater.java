@@ -8,8 +8,9 @@ import com.hyleria.command.api.CommandHandler;
 import com.hyleria.command.api.SubCommand;
 import com.hyleria.command.api.annotation.Permission;
 import com.hyleria.common.backend.ServerConfig;
-import com.hyleria.common.backend.payload.SwitchPlayerServerPayload;
+import com.hyleria.common.backend.payload.BulkSwitchPlayerServerPayload;
 import com.hyleria.common.inject.StartParallel;
+import com.hyleria.common.mongo.AccountHandoff;
 import com.hyleria.common.redis.RedisHandler;
 import com.hyleria.common.reference.Constants;
 import com.hyleria.common.reference.Role;
@@ -28,7 +29,9 @@ import org.spigotmc.WatchdogThread;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 
@@ -47,6 +50,12 @@ public class Updater
     /** the file for the JAR that we'll be uploading */
     private static final Function<Player, File> UPDATE_FOR_DEV = player -> new File(format(Constants.BASE_PATH + "update/dev/%s/Hyleria.jar", player.getName().toLowerCase()));
 
+    /** how many players the proxy moves per second during a bulk switch; keep in step w/ its setting */
+    private static final double CONNECTS_PER_SECOND = Double.parseDouble(System.getProperty("com.hyleria.bungee.connects_per_second", "30"));
+
+    /** extra time, past what the proxy should need, that we'll give everyone to leave */
+    private static final long DRAIN_MARGIN_MS = TimeUnit.SECONDS.toMillis(5);
+
     /** name of this server */
     private final String serverName;
 
@@ -56,6 +65,12 @@ public class Updater
     /** our plugin */
     @Inject private Hyleria plugin;
 
+    /** passes accounts along to the next server */
+    @Inject private AccountHandoff handoff;
+
+    /** ID of the task waiting for everyone to leave before we shut down */
+    private int drainTask = -1;
+
     @Inject
     public Updater(RedisHandler redis, ServerConfig config, CommandHandler command)
     {
@@ -100,28 +115,50 @@ public class Updater
      */
     private void restart()
     {
+        AsyncCatcher.enabled = false;
+
+
+        // their accounts go w/ them; no longer than we'd wait anyways
         try
         {
-            AsyncCatcher.enabled = false;
+            handoff.handOff(PlayerUtil.everyoneStream().map(Player::getUniqueId).collect(Collectors.toList())).get(2, TimeUnit.SECONDS);
+        }
+        catch (Exception ex)
+        {
+            Issues.handle("Account Hand-off", ex);
+        }
 
+        // one message; the proxy spreads everyone across the
+        // least busy lobbies (never us) and paces the connects
+        BulkSwitchPlayerServerPayload.everyoneOn(serverName, "Lobby-").publish(redis);
 
-            // TODO(Ben): this all sucks, redo at some point
+        // ^ make sure that actually made it out
+        redis.flush(2, TimeUnit.SECONDS);
 
-            if (serverName.equals("Lobby-1"))
-            {
-                // NOT a scaling approach; needs to be redone
-                PlayerUtil.everyoneStream().forEach(player ->
-                        player.kickPlayer(ChatColor.GOLD + "Hyleria " + ChatColor.GRAY + " - " + ChatColor.YELLOW));
-            }
-            else
-            {
-                // TODO(Ben): implement bulk player switch, way too much traffic here
-                PlayerUtil.everyoneStream().forEach(player -> new SwitchPlayerServerPayload(player.getUniqueId(), "Lobby-1").publish(redis));
-            }
+        // the proxy only moves so many players a second; closing
+        // connections before it's through would kick the rest. we
+        // can't block here as quits are handled on this thread too
+        final long _deadline = System.currentTimeMillis() + (long) (PlayerUtil.onlineCount() / CONNECTS_PER_SECOND * 1000) + DRAIN_MARGIN_MS;
 
-            // ^ let that process
-            Thread.sleep(80);
+        drainTask = Scheduler.timerExact(() ->
+        {
+            if (PlayerUtil.onlineCount() > 0 && System.currentTimeMillis() < _deadline)
+                return;
+
+            Scheduler.end(drainTask);
+            shutdown();
+        }, 5);
+    }
 
+    /**
+     * Once everyone is gone; shut
+     * down then let the script start
+     * us back up
+     */
+    private void shutdown()
+    {
+        try
+        {
             // should probably actually restart the server
             final Thread _restartThread = new Thread(() ->
             {
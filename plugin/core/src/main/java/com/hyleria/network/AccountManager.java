@@ -2,14 +2,20 @@ package com.hyleria.network;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.hyleria.Hyleria;
 import com.hyleria.common.account.Account;
 import com.hyleria.common.inject.StartParallel;
+import com.hyleria.common.mongo.AccountCoherence;
+import com.hyleria.common.mongo.AccountHandoff;
 import com.hyleria.common.mongo.Database;
+import com.hyleria.common.mongo.SharedAccountCache;
 import com.hyleria.common.reference.Role;
+import com.hyleria.network.event.PlayerRoleUpdateEvent;
 import com.hyleria.util.Issues;
 import com.hyleria.util.LogUtil;
 import com.hyleria.util.Module;
 import com.hyleria.util.ShutdownHook;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
@@ -17,7 +23,6 @@ import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.Optional;
 import java.util.UUID;
 
 
@@ -35,6 +40,27 @@ public class AccountManager extends Module
     /** allows us to grab info from our mongo instance */
     @Inject private Database database;
 
+    /** accounts left for us by the server a player came from */
+    @Inject private AccountHandoff handoff;
+
+    @Override
+    public void configure(Hyleria plugin)
+    {
+        super.configure(plugin);
+
+        // puts itself between our cache and Mongo, if it's turned on
+        require(SharedAccountCache.class);
+
+        // roles changed on other servers; let everything here know too
+        require(AccountCoherence.class).onRoleChange((uuid, previous, fresh) ->
+        {
+            final Player _player = Bukkit.getPlayer(uuid);
+
+            if (_player != null)
+                new PlayerRoleUpdateEvent(_player, previous, fresh).call();
+        });
+    }
+
     /**
      * Attempts to grab an account by
      * a Bukkit {@link Player}.
@@ -90,20 +116,13 @@ public class AccountManager extends Module
 
 
             final long _startedAt = System.currentTimeMillis();
-            final Optional<Account> _transaction = database.fetchAccountSync(event.getUniqueId());
 
-            if (_transaction.isPresent())
-            {
-                database.cacheCommit(_transaction.get());
-                // TODO(Ben): update account | name, IP
-            }
-            else
-            {
-                final Account _account = Account.fromLoginData(event.getUniqueId(), event.getName(), event.getAddress().getHostAddress());
+            final String _address = event.getAddress().getHostAddress();
 
-                database.cacheCommit(_account);
-                database.accounts.insertOne(_account.asDocument());
-            }
+            // the server they came from may have left their account for us; if not,
+            // load (or create) their account, and record this login, in one go
+            database.cacheCommit(handoff.claim(event.getUniqueId(), event.getName(), _address)
+                                        .orElseGet(() -> database.login(event.getUniqueId(), event.getName(), _address)));
 
             LogUtil.system("Login", "Elapsed time for " + event.getName() + ": " + (System.currentTimeMillis() - _startedAt) + "ms");
         }
@@ -116,6 +135,8 @@ public class AccountManager extends Module
     @EventHandler
     public void cleanupCache(PlayerQuitEvent event)
     {
+        // get whatever they changed out before we forget about them
+        database.cacheFetch(event.getPlayer().getUniqueId()).filter(Account::isDirty).ifPresent(database::save);
         database.cacheInvalidate(event.getPlayer().getUniqueId());
     }
 
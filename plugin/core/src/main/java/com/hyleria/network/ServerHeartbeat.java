@@ -0,0 +1,122 @@
+package com.hyleria.network;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.hyleria.common.backend.ServerConfig;
+import com.hyleria.common.backend.payload.ServerHeartbeatPayload;
+import com.hyleria.common.inject.StartParallel;
+import com.hyleria.common.redis.RedisHandler;
+import com.hyleria.util.PlayerUtil;
+import com.hyleria.util.Scheduler;
+import net.minecraft.server.v1_7_R4.MinecraftServer;
+import org.bukkit.Bukkit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Lets the proxies know that we're alive,
+ * and how busy we are, every couple of seconds.
+ *
+ * <p>
+ * Whatever is running a game on this server
+ * (Coeus) should provide us with its status
+ * and the name of its game; otherwise we
+ * report ourselves as simply being open.
+ *
+ * @author Ben (OutdatedVersion)
+ * @since May/21/2017 (1:05 PM)
+ */
+@Singleton
+@StartParallel
+public class ServerHeartbeat
+{
+
+    /** how often (in ticks) we send a heartbeat */
+    private static final long INTERVAL_TICKS = 40;
+
+    /** how much weight each new tick gets in our average */
+    private static final double TICK_SMOOTHING = 0.05;
+
+    /** the name of this server */
+    private final String serverName;
+
+    /** network interaction */
+    private final RedisHandler redis;
+
+    /** provides the status of our game */
+    private volatile Supplier<String> status = () -> ServerHeartbeatPayload.STATUS_OPEN;
+
+    /** provides the name of our game */
+    private volatile Supplier<String> game = () -> null;
+
+    /** when the last tick started */
+    private long lastTick;
+
+    /** average time (in ms) between the start of each tick */
+    private double averageTickMillis = 50;
+
+    @Inject
+    public ServerHeartbeat(RedisHandler redis, ServerConfig config)
+    {
+        this.redis = redis;
+        this.serverName = config.name;
+
+        Scheduler.timerExact(this::sampleTick, 1);
+        Scheduler.timerExact(this::beat, INTERVAL_TICKS, INTERVAL_TICKS);
+    }
+
+    /**
+     * @param status provides the status of the game
+     *               being played; see Coeus' {@code Status}
+     * @return this heartbeat
+     */
+    public ServerHeartbeat reportStatus(Supplier<String> status)
+    {
+        this.status = status;
+        return this;
+    }
+
+    /**
+     * @param game provides the name of the game being played
+     * @return this heartbeat
+     */
+    public ServerHeartbeat reportGame(Supplier<String> game)
+    {
+        this.game = game;
+        return this;
+    }
+
+    /**
+     * Keep track of how long our ticks are taking.
+     * Once we fall behind the time between ticks
+     * is the time each tick took.
+     */
+    private void sampleTick()
+    {
+        final long _now = System.nanoTime();
+
+        if (lastTick != 0)
+        {
+            final double _millis = (_now - lastTick) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            averageTickMillis += (_millis - averageTickMillis) * TICK_SMOOTHING;
+        }
+
+        lastTick = _now;
+    }
+
+    /**
+     * Send out a heartbeat
+     */
+    private void beat()
+    {
+        new ServerHeartbeatPayload(serverName,
+                                   PlayerUtil.onlineCount(),
+                                   Bukkit.getMaxPlayers(),
+                                   Math.min(20, MinecraftServer.getServer().recentTps[0]),
+                                   averageTickMillis,
+                                   status.get(),
+                                   game.get()).publish(redis);
+    }
+
+}